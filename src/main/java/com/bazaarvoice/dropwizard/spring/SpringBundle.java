@@ -1,28 +1,76 @@
 package com.bazaarvoice.dropwizard.spring;
 
+import com.bazaarvoice.dropwizard.spring.async.AsyncResourceBinder;
+import com.bazaarvoice.dropwizard.spring.async.AsyncResponses;
+import com.bazaarvoice.dropwizard.spring.batch.BatchLoadFunction;
+import com.bazaarvoice.dropwizard.spring.batch.BatchLoaderRegistry;
+import com.bazaarvoice.dropwizard.spring.batch.BatchScope;
+import com.bazaarvoice.dropwizard.spring.batch.BatchScopeFilter;
+import com.bazaarvoice.dropwizard.spring.cache.CachedResponse;
+import com.bazaarvoice.dropwizard.spring.cache.ResponseCache;
+import com.bazaarvoice.dropwizard.spring.cache.ResponseCacheFeature;
+import com.bazaarvoice.dropwizard.spring.cache.ResponseCacheInvalidationTask;
+import com.bazaarvoice.dropwizard.spring.cds.ClassDataSharingTrainingCommand;
+import com.bazaarvoice.dropwizard.spring.condition.ConditionalOnConfiguration;
+import com.bazaarvoice.dropwizard.spring.condition.ConfigurationConditionPostProcessor;
+import com.bazaarvoice.dropwizard.spring.condition.ConfigurationConditionReport;
+import com.bazaarvoice.dropwizard.spring.definition.BeanDefinitionCache;
+import com.bazaarvoice.dropwizard.spring.footprint.HeapFootprint;
+import com.bazaarvoice.dropwizard.spring.footprint.HeapFootprintReport;
+import com.bazaarvoice.dropwizard.spring.footprint.HeapFootprintTask;
+import com.bazaarvoice.dropwizard.spring.footprint.ObjectGraphSizer;
+import com.bazaarvoice.dropwizard.spring.jackson.ObjectMapperCache;
+import com.bazaarvoice.dropwizard.spring.jdbc.DataSourceHealthCheck;
+import com.bazaarvoice.dropwizard.spring.jdbc.DataSourceInstrumentingBeanPostProcessor;
+import com.bazaarvoice.dropwizard.spring.jdbc.InstrumentedDataSource;
+import com.bazaarvoice.dropwizard.spring.jetty.ApplicationExecutorFilter;
+import com.bazaarvoice.dropwizard.spring.jetty.VirtualThreads;
+import com.bazaarvoice.dropwizard.spring.parent.SharedParentContext;
+import com.bazaarvoice.dropwizard.spring.tracing.Tracer;
+import com.bazaarvoice.dropwizard.spring.tracing.TracesTask;
+import com.bazaarvoice.dropwizard.spring.tracing.TracingBeanPostProcessor;
+import com.bazaarvoice.dropwizard.spring.tracing.TracingFilter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.InstrumentedExecutorService;
+import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.health.HealthCheck;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
 import com.google.common.base.Preconditions;
 import io.dropwizard.Configuration;
 import io.dropwizard.ConfiguredBundle;
+import io.dropwizard.lifecycle.ExecutorServiceManager;
 import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.lifecycle.ServerLifecycleListener;
 import io.dropwizard.servlets.tasks.Task;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
+import io.dropwizard.util.Duration;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.glassfish.hk2.api.InjectionResolver;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.context.ConfigurableApplicationContext;
 
+import javax.servlet.DispatcherType;
+import javax.servlet.FilterRegistration;
+import javax.sql.DataSource;
 import javax.ws.rs.Path;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.ext.Provider;
+import java.io.File;
 import java.io.IOException;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 
 /**
  * A bundle which load Spring Application context to automatically initialize Dropwizard {@link Environment}
@@ -34,16 +82,43 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
     public static final String DEFAULT_CONFIGURATION_BEAN_NAME = "dw";
     public static final String DEFAULT_ENVIRONMENT_BEAN_NAME = "dwEnv";
     public static final String DEFAULT_OBJECT_MAPPER_BEAN_NAME = "dwObjectMapper";
+    public static final String DEFAULT_OBJECT_MAPPER_CACHE_BEAN_NAME = "dwObjectMapperCache";
+    public static final int DEFAULT_TRACE_BUFFER_SIZE = 8192;
+    public static final long DEFAULT_SLOW_STATEMENT_THRESHOLD_MS = 1000;
+    public static final int DEFAULT_DATA_SOURCE_VALIDATION_TIMEOUT_SECONDS = 5;
+    public static final long DEFAULT_HEAP_FOOTPRINT_REFRESH_INTERVAL_MS = 60000;
 
     private static final Logger LOG = LoggerFactory.getLogger(SpringBundle.class);
 
     private String configurationBeanName = DEFAULT_CONFIGURATION_BEAN_NAME;
     private String environmentBeanName = DEFAULT_ENVIRONMENT_BEAN_NAME;
     private String objectMapperBeanName = DEFAULT_OBJECT_MAPPER_BEAN_NAME;
+    private String objectMapperCacheBeanName = DEFAULT_OBJECT_MAPPER_CACHE_BEAN_NAME;
     private ConfigurableApplicationContext context;
     private boolean registerConfiguration = true;
     private boolean registerEnvironment = true;
     private boolean registerObjectMapper = true;
+    private boolean optimizeObjectMapper;
+    private long responseCacheMaxBytes;
+    private int maxBatchSize;
+    private long batchWindowMillis;
+    private double traceSampleRate;
+    private String[] tracedPackages;
+    private int traceBufferSize = DEFAULT_TRACE_BUFFER_SIZE;
+    private boolean instrumentDataSources;
+    private long slowStatementThresholdMs = DEFAULT_SLOW_STATEMENT_THRESHOLD_MS;
+    private int dataSourceValidationTimeoutSeconds = DEFAULT_DATA_SOURCE_VALIDATION_TIMEOUT_SECONDS;
+    private boolean classDataSharingTraining;
+    private String applicationExecutorBeanName;
+    private boolean virtualThreads;
+    private boolean configurationConditions;
+    private boolean asyncResources;
+    private String asyncContinuationExecutorBeanName;
+    private String beanDefinitionCacheFile;
+    private int heapFootprintTopBeans;
+    private long heapFootprintRefreshIntervalMs = DEFAULT_HEAP_FOOTPRINT_REFRESH_INTERVAL_MS;
+    private String sharedParentContextName;
+    private Supplier<? extends ConfigurableApplicationContext> sharedParentContextFactory;
 
     /**
      * Creates a new SpringBundle to automatically initialize Dropwizard {@link Environment}
@@ -103,12 +178,232 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         return this;
     }
 
+    /**
+     * Enable/Disable tuning Dropwizard's ObjectMapper: installing bytecode-generated (Afterburner) serializers,
+     * warming up the serializers of resource entity types and registering an {@link ObjectMapperCache} of
+     * readers and writers,  Default is false
+     */
+    public SpringBundle<T> optimizeObjectMapper(boolean optimizeObjectMapper) {
+        this.optimizeObjectMapper = optimizeObjectMapper;
+        return this;
+    }
+
+    /**
+     * The Bean name used when registering the {@link ObjectMapperCache},  Default is 'dwObjectMapperCache'
+     */
+    public SpringBundle<T> withObjectMapperCacheBeanName(String objectMapperCacheBeanName) {
+        this.objectMapperCacheBeanName = objectMapperCacheBeanName;
+        return this;
+    }
+
+    /**
+     * Enable caching the responses of GET resources annotated with {@link CachedResponse}, keeping at most
+     * maxBytes of entities off-heap,  Default is disabled
+     */
+    public SpringBundle<T> enableResponseCache(long maxBytes) {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+        this.responseCacheMaxBytes = maxBytes;
+        return this;
+    }
+
+    /**
+     * Enable request-scoped batch loading through the {@link BatchLoadFunction} beans, loading at most maxBatchSize
+     * keys per call,  Default is disabled
+     */
+    public SpringBundle<T> enableBatchLoading(int maxBatchSize) {
+        return enableBatchLoading(maxBatchSize, 0);
+    }
+
+    /**
+     * Enable request-scoped batch loading through the {@link BatchLoadFunction} beans, loading at most maxBatchSize
+     * keys per call and dispatching queued keys once they waited batchWindowMillis (0 to only dispatch on
+     * demand),  Default is disabled
+     */
+    public SpringBundle<T> enableBatchLoading(int maxBatchSize, long batchWindowMillis) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be positive");
+        Preconditions.checkArgument(batchWindowMillis >= 0, "batchWindowMillis must not be negative");
+        this.maxBatchSize = maxBatchSize;
+        this.batchWindowMillis = batchWindowMillis;
+        return this;
+    }
+
+    /**
+     * Enable tracing the method calls of the Spring beans of the given packages for the given fraction of Jersey
+     * requests,  Default is disabled
+     */
+    public SpringBundle<T> enableTracing(double sampleRate, String... basePackages) {
+        Preconditions.checkArgument(sampleRate > 0 && sampleRate <= 1, "sampleRate must be between 0 and 1");
+        Preconditions.checkArgument(basePackages.length > 0, "at least one package must be traced");
+        this.traceSampleRate = sampleRate;
+        this.tracedPackages = basePackages;
+        return this;
+    }
+
+    /**
+     * The number of spans kept in memory when tracing is enabled,  Default is 8192
+     */
+    public SpringBundle<T> withTraceBufferSize(int traceBufferSize) {
+        this.traceBufferSize = traceBufferSize;
+        return this;
+    }
+
+    /**
+     * Enable/Disable instrumenting the {@link DataSource} beans and registering a health check per data source,  Default is false
+     */
+    public SpringBundle<T> instrumentDataSources(boolean instrumentDataSources) {
+        this.instrumentDataSources = instrumentDataSources;
+        return this;
+    }
+
+    /**
+     * The execution time above which an instrumented data source counts a statement as slow,  Default is 1000 ms
+     */
+    public SpringBundle<T> withSlowStatementThreshold(long slowStatementThresholdMs) {
+        this.slowStatementThresholdMs = slowStatementThresholdMs;
+        return this;
+    }
+
+    /**
+     * The time the health check of an instrumented data source waits for a connection to be validated,  Default is 5 seconds
+     */
+    public SpringBundle<T> withDataSourceValidationTimeout(int dataSourceValidationTimeoutSeconds) {
+        Preconditions.checkArgument(dataSourceValidationTimeoutSeconds >= 0, "dataSourceValidationTimeoutSeconds must not be negative");
+        this.dataSourceValidationTimeoutSeconds = dataSourceValidationTimeoutSeconds;
+        return this;
+    }
+
+    /**
+     * Enable/Disable the 'cds-training' command, recording the classes loaded while booting and warming up the
+     * application to build a class-data-sharing archive,  Default is false
+     */
+    public SpringBundle<T> enableClassDataSharingTraining(boolean classDataSharingTraining) {
+        this.classDataSharingTraining = classDataSharingTraining;
+        return this;
+    }
+
+    /**
+     * The name of the {@link Executor} Bean processing the application requests instead of the server's thread pool,
+     * Default is none
+     */
+    public SpringBundle<T> withApplicationExecutor(String applicationExecutorBeanName) {
+        this.applicationExecutorBeanName = applicationExecutorBeanName;
+        return this;
+    }
+
+    /**
+     * Enable/Disable processing each application request in a new virtual thread, which requires Java 21 or later,
+     * Default is false
+     */
+    public SpringBundle<T> enableVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Enable/Disable the evaluation of {@link ConditionalOnConfiguration} conditions against the Dropwizard
+     * configuration, so that the components of disabled groups are never defined, Default is false
+     */
+    public SpringBundle<T> enableConfigurationConditions(boolean configurationConditions) {
+        this.configurationConditions = configurationConditions;
+        return this;
+    }
+
+    /**
+     * Enable/Disable resource methods returning a {@code CompletionStage}, Spring or Guava {@code ListenableFuture},
+     * which are completed without blocking a server thread, Default is false
+     */
+    public SpringBundle<T> enableAsyncResources(boolean asyncResources) {
+        this.asyncResources = asyncResources;
+        return this;
+    }
+
+    /**
+     * The name of the {@link Executor} Bean resuming the requests once the futures returned by their resource methods
+     * complete, Default is the thread completing the future
+     */
+    public SpringBundle<T> withAsyncContinuationExecutor(String asyncContinuationExecutorBeanName) {
+        this.asyncContinuationExecutorBeanName = asyncContinuationExecutorBeanName;
+        return this;
+    }
+
+    /**
+     * Enable the cache of the bean definitions resolved from the configuration classes, stored in the given file so
+     * that later boots of the same application do not parse them again, Default is disabled
+     */
+    public SpringBundle<T> enableBeanDefinitionCache(String beanDefinitionCacheFile) {
+        this.beanDefinitionCacheFile = beanDefinitionCacheFile;
+        return this;
+    }
+
+    /**
+     * Enable the 'heap-footprint' task estimating the heap retained by every singleton of the context, and the gauges
+     * of the topBeans largest retained sizes,  Default is disabled
+     */
+    public SpringBundle<T> enableHeapFootprint(int topBeans) {
+        Preconditions.checkArgument(topBeans > 0, "topBeans must be positive");
+        this.heapFootprintTopBeans = topBeans;
+        return this;
+    }
+
+    /**
+     * The interval between the background computations of the heap footprint read by the gauges,  Default is 60000 ms
+     */
+    public SpringBundle<T> withHeapFootprintRefreshInterval(long heapFootprintRefreshIntervalMs) {
+        Preconditions.checkArgument(heapFootprintRefreshIntervalMs > 0, "heapFootprintRefreshIntervalMs must be positive");
+        this.heapFootprintRefreshIntervalMs = heapFootprintRefreshIntervalMs;
+        return this;
+    }
+
+    /**
+     * Use the {@link SharedParentContext} registered under the given name, created with the factory by the first
+     * application of the JVM using it, as the parent of the application context,  Default is none
+     */
+    public SpringBundle<T> withSharedParentContext(String name, Supplier<? extends ConfigurableApplicationContext> factory) {
+        this.sharedParentContextName = Preconditions.checkNotNull(name, "name");
+        this.sharedParentContextFactory = Preconditions.checkNotNull(factory, "factory");
+        return this;
+    }
+
     @Override
     public void run(T configuration, Environment environment) throws Exception {
-        if (registerConfiguration || registerEnvironment  || registerObjectMapper) {
+        if (registerConfiguration || registerEnvironment  || registerObjectMapper || optimizeObjectMapper) {
             Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to register configuration, environment, or objectmapper");
         }
+        if (traceSampleRate > 0) {
+            Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to trace beans");
+        }
+        if (instrumentDataSources) {
+            Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to instrument data sources");
+        }
+        if (virtualThreads) {
+            Preconditions.checkArgument(applicationExecutorBeanName == null, "Virtual threads and an application executor cannot be both used");
+            Preconditions.checkState(VirtualThreads.isSupported(), "Virtual threads require Java 21 or later");
+        }
+        if (beanDefinitionCacheFile != null) {
+            Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to cache bean definitions");
+        }
+        if (sharedParentContextName != null) {
+            Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to use a shared parent context");
+            Preconditions.checkArgument(context.getParent() == null, "Context must not have a parent in order to use a shared parent context");
+            Preconditions.checkArgument(!environment.metrics().getNames().contains(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "applications")),
+                    "The metrics of the shared parent context '" + sharedParentContextName + "' are already registered");
+        }
+        if (configurationConditions) {
+            Preconditions.checkArgument(registerConfiguration, "The configuration must be registered in order to evaluate configuration conditions");
+            Preconditions.checkArgument(!context.isActive(), "Context must be not active in order to evaluate configuration conditions");
+        }
+
+        // Use the shared parent context, released if the application fails to initialize
+        SharedParentContext sharedParentContext = sharedParentContextName != null ? registerSharedParentContext(context) : null;
+        try {
+            initialize(configuration, environment, sharedParentContext);
+        } catch (Throwable e) {
+            if (sharedParentContext != null) sharedParentContext.release();
+            throw e;
+        }
+    }
 
+    private void initialize(T configuration, Environment environment, SharedParentContext sharedParentContext) throws Exception {
         // Register Dropwizard Configuration as a Bean Spring.
         if (registerConfiguration) registerConfiguration(environment, configuration, context);
 
@@ -118,19 +413,46 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         // Register the Dropwizard objectMapper
         if (registerObjectMapper) registerObjectMapper(environment.getObjectMapper(), context);
 
+        // Tune the Dropwizard objectMapper and register its reader/writer cache
+        ObjectMapperCache objectMapperCache = optimizeObjectMapper ? registerObjectMapperCache(environment.getObjectMapper(), context) : null;
+
+        // Trace the beans created by the context
+        Tracer tracer = traceSampleRate > 0 ? registerTracer(environment, context) : null;
+
+        // Instrument the data sources created by the context
+        if (instrumentDataSources) registerDataSourceInstrumentation(environment, context);
+
+        // Evaluate the configuration conditions of the bean definitions
+        ConfigurationConditionReport conditionReport = configurationConditions ? registerConfigurationConditions(context) : null;
+
+        // Register the cached bean definitions, or cache them
+        BeanDefinitionCache beanDefinitionCache = beanDefinitionCacheFile != null ? registerBeanDefinitionCache(environment, configuration, context) : null;
+
         // Refresh context if is not active
         if (!context.isActive()) context.refresh();
+        if (beanDefinitionCache != null) storeBeanDefinitionCache(beanDefinitionCache);
 
         // Initialize Dropwizard environment
+        if (sharedParentContext != null) registerSharedParentContextMetrics(environment, sharedParentContext, context);
+        if (conditionReport != null) reportConfigurationConditions(environment, conditionReport);
         registerManaged(environment, context);
         registerLifecycle(environment, context);
         registerServerLifecycleListeners(environment, context);
         registerTasks(environment, context);
         registerHealthChecks(environment, context);
+        if (instrumentDataSources) registerDataSourceHealthChecks(environment, context);
+        if (applicationExecutorBeanName != null || virtualThreads) registerApplicationExecutor(environment, context);
         registerInjectionResolverBinders(environment, context);
         registerProviders(environment, context);
         registerContainerResponseFilters(environment, context);
+        if (maxBatchSize > 0) registerBatchLoading(environment, context);
+        if (tracer != null) registerTracing(environment, tracer);
+        if (asyncResources) registerAsyncResources(environment, context);
         registerResources(environment, context);
+        if (responseCacheMaxBytes > 0) registerResponseCache(environment);
+        if (objectMapperCache != null) warmUpObjectMapper(objectMapperCache, context);
+        HeapFootprint footprint = heapFootprintTopBeans > 0 ? registerHeapFootprint(environment, context) : null;
+        if (sharedParentContext != null && footprint != null) registerSharedParentContextFootprints(environment, sharedParentContext, footprint);
 
         environment.lifecycle().manage(new Managed() {
             @Override
@@ -139,6 +461,7 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
             @Override
             public void stop() {
                 context.stop();
+                if (sharedParentContext != null) sharedParentContext.release();
             }
         });
     }
@@ -146,7 +469,12 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
 
     @Override
     public void initialize(Bootstrap<?> bootstrap) {
-        // nothing doing
+        if (classDataSharingTraining) addClassDataSharingTrainingCommand(bootstrap);
+    }
+
+    private <C extends Configuration> void addClassDataSharingTrainingCommand(Bootstrap<C> bootstrap) {
+        bootstrap.addCommand(new ClassDataSharingTrainingCommand<>(bootstrap.getApplication(), this));
+        LOG.info("Registering command: cds-training");
     }
 
     public ConfigurableApplicationContext getContext() {
@@ -238,12 +566,85 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         for (String beanName : beansOfType.keySet()) {
             // Add healthCheck to Dropwizard environment
             HealthCheck healthCheck = beansOfType.get(beanName);
-            environment.healthChecks().register(healthCheck.getClass().getName(), healthCheck);
-            LOG.info("Registering healthCheck: " + healthCheck.getClass().getName());
+            // Named after the bean class rather than the class of its proxy, if any
+            String name = AopUtils.getTargetClass(healthCheck).getName();
+            environment.healthChecks().register(name, healthCheck);
+            LOG.info("Registering healthCheck: " + name);
+        }
+    }
+
+
+    /**
+     * Register a {@link DataSourceHealthCheck} per {@link InstrumentedDataSource} in Dropwizard {@link Environment}
+     * from Spring application context.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     the Spring application context
+     */
+    private void registerDataSourceHealthChecks(Environment environment, ConfigurableApplicationContext context) {
+        final Map<String, InstrumentedDataSource> beansOfType = context.getBeansOfType(InstrumentedDataSource.class);
+        for (String beanName : beansOfType.keySet()) {
+            // Add dataSource healthCheck to Dropwizard environment
+            String name = DataSourceHealthCheck.class.getName() + "." + beanName;
+            environment.healthChecks().register(name, new DataSourceHealthCheck(beansOfType.get(beanName), dataSourceValidationTimeoutSeconds));
+            LOG.info("Registering healthCheck: " + name);
         }
     }
 
 
+    /**
+     * Register the {@link ApplicationExecutorFilter} processing the application requests on the application executor
+     * Bean, or on virtual threads, in Dropwizard {@link Environment}.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     the Spring application context
+     */
+    private void registerApplicationExecutor(Environment environment, ConfigurableApplicationContext context) {
+        Executor executor;
+        String name;
+        if (virtualThreads) {
+            ExecutorService virtualThreadExecutor = VirtualThreads.newThreadPerTaskExecutor("dw-virtual-");
+            environment.lifecycle().manage(new ExecutorServiceManager(virtualThreadExecutor, Duration.seconds(5), "dw-virtual"));
+            environment.lifecycle().manage(VirtualThreads.monitor(environment.metrics()));
+            executor = virtualThreadExecutor;
+            name = "virtual-threads";
+        } else {
+            executor = context.getBean(applicationExecutorBeanName, Executor.class);
+            name = applicationExecutorBeanName;
+        }
+        if (executor instanceof ExecutorService) {
+            executor = new InstrumentedExecutorService((ExecutorService) executor, environment.metrics(),
+                    MetricRegistry.name(ApplicationExecutorFilter.class, name));
+        }
+        FilterRegistration.Dynamic filter = environment.servlets().addFilter("application-executor", new ApplicationExecutorFilter(executor));
+        filter.setAsyncSupported(true);
+        filter.addMappingForUrlPatterns(EnumSet.of(DispatcherType.REQUEST), false, "/*");
+        LOG.info("Registering application executor: " + name);
+    }
+
+
+    /**
+     * Register the {@link AsyncResourceBinder} completing the futures returned by resource methods in Dropwizard
+     * {@link Environment}, on the continuation executor Bean if any.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     the Spring application context
+     */
+    private void registerAsyncResources(Environment environment, ConfigurableApplicationContext context) {
+        Executor executor = Runnable::run;
+        if (asyncContinuationExecutorBeanName != null) {
+            executor = context.getBean(asyncContinuationExecutorBeanName, Executor.class);
+            if (executor instanceof ExecutorService) {
+                executor = new InstrumentedExecutorService((ExecutorService) executor, environment.metrics(),
+                        MetricRegistry.name(AsyncResponses.class, asyncContinuationExecutorBeanName));
+            }
+        }
+        environment.jersey().register(new AsyncResourceBinder(executor, environment.metrics()));
+        LOG.info("Registering async resources with continuation executor: "
+                + (asyncContinuationExecutorBeanName != null ? asyncContinuationExecutorBeanName : "none"));
+    }
+
+
     /**
      * Register {@link InjectionResolver}s in Dropwizard {@link Environment} from Spring application context.
      *
@@ -285,6 +686,45 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         }
     }
 
+    /**
+     * Register the {@link BatchScopeFilter} opening a {@link BatchScope} per request over the {@link BatchLoadFunction}s
+     * of the Spring application context.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     the Spring application context
+     */
+    private void registerBatchLoading(Environment environment, ConfigurableApplicationContext context) {
+        final Map<String, BatchLoadFunction<?, ?>> beansOfType = new LinkedHashMap<>();
+        for (Map.Entry<String, ?> bean : context.getBeansOfType(BatchLoadFunction.class).entrySet()) {
+            beansOfType.put(bean.getKey(), (BatchLoadFunction<?, ?>) bean.getValue());
+            LOG.info("Registering batch load function: " + bean.getValue().getClass().getName());
+        }
+        ScheduledExecutorService scheduler = batchWindowMillis > 0
+                ? environment.lifecycle().scheduledExecutorService("batch-loader-%d").threads(1).build()
+                : null;
+        BatchLoaderRegistry registry = new BatchLoaderRegistry(beansOfType, environment.metrics(), maxBatchSize, scheduler, batchWindowMillis);
+        BatchScopeFilter filter = new BatchScopeFilter(registry);
+        environment.jersey().getResourceConfig().register(filter);
+        LOG.info("Registering ContainerResponseFilter: " + filter.getClass().getName());
+    }
+
+    /**
+     * Register the {@link TracingFilter} sampling Jersey requests, along with the {@link TracesTask} printing their
+     * traces, in Dropwizard {@link Environment}.
+     *
+     * @param environment the Dropwizard environment
+     * @param tracer      the tracer recording the sampled requests
+     */
+    private void registerTracing(Environment environment, Tracer tracer) {
+        TracingFilter filter = new TracingFilter(tracer);
+        environment.jersey().getResourceConfig().register(filter);
+        LOG.info("Registering ContainerResponseFilter: " + filter.getClass().getName());
+
+        TracesTask task = new TracesTask(tracer);
+        environment.admin().addTask(task);
+        LOG.info("Registering task: " + task.getClass().getName());
+    }
+
     /**
      * Register resources annotated with {@link Path} in Dropwizard {@link Environment} from Spring application context.
      *
@@ -301,6 +741,131 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         }
     }
 
+    /**
+     * Warm up the (de)serializers of the entity types of the resources annotated with {@link Path}.
+     *
+     * @param objectMapperCache the cache of Dropwizard's {@link ObjectMapper} readers and writers
+     * @param context           the Spring application context
+     */
+    private void warmUpObjectMapper(ObjectMapperCache objectMapperCache, ConfigurableApplicationContext context) {
+        final Map<String, Object> beansWithAnnotation = context.getBeansWithAnnotation(Path.class);
+        for (String beanName : beansWithAnnotation.keySet()) {
+            Object resource = beansWithAnnotation.get(beanName);
+            int warmed = objectMapperCache.warmUp(resource.getClass());
+            LOG.info("Warmed up " + warmed + " entity types of resource : " + resource.getClass().getName());
+        }
+    }
+
+    /**
+     * Register the {@link ResponseCache} serving resources annotated with {@link CachedResponse}, along with
+     * its invalidation task, in Dropwizard {@link Environment}.
+     *
+     * @param environment the Dropwizard environment
+     */
+    private void registerResponseCache(Environment environment) {
+        ResponseCache responseCache = new ResponseCache(responseCacheMaxBytes, environment.metrics());
+        environment.jersey().register(new ResponseCacheFeature(responseCache));
+        environment.admin().addTask(new ResponseCacheInvalidationTask(responseCache));
+        LOG.info("Registering response cache with a budget of " + responseCacheMaxBytes + " bytes");
+    }
+
+    /**
+     * Register the {@link HeapFootprint} gauges of the singletons of the Spring application context, computed in the
+     * background, along with the {@link HeapFootprintTask} printing it, in Dropwizard {@link Environment}.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     the Spring application context
+     * @return the heap footprint of the Spring application context
+     */
+    private HeapFootprint registerHeapFootprint(Environment environment, ConfigurableApplicationContext context) {
+        HeapFootprint footprint = new HeapFootprint(context.getBeanFactory(), new ObjectGraphSizer(), environment.metrics(),
+                heapFootprintTopBeans, heapFootprintRefreshIntervalMs);
+        scheduleHeapFootprint(environment, footprint, "heap-footprint-%d");
+        LOG.info("Registering heap footprint gauges of the " + heapFootprintTopBeans + " largest singletons, computed every "
+                + heapFootprintRefreshIntervalMs + " ms");
+
+        HeapFootprintTask task = new HeapFootprintTask(footprint);
+        environment.admin().addTask(task);
+        LOG.info("Registering task: " + task.getClass().getName());
+        return footprint;
+    }
+
+    /**
+     * Acquire the {@link SharedParentContext} and set it as the parent of the Spring application context.
+     *
+     * @param context the Spring application context
+     */
+    private SharedParentContext registerSharedParentContext(ConfigurableApplicationContext context) {
+        SharedParentContext sharedParentContext = SharedParentContext.acquire(sharedParentContextName, sharedParentContextFactory);
+        ConfigurableApplicationContext parent = sharedParentContext.getContext();
+        context.setParent(parent);
+        LOG.info("Using shared parent context '" + sharedParentContextName + "' with " + parent.getBeanDefinitionCount()
+                + " beans, shared by " + sharedParentContext.getReferences() + " applications");
+        return sharedParentContext;
+    }
+
+    /**
+     * Register the number of applications and the bean counts of the {@link SharedParentContext} and of the refreshed
+     * Spring application context in Dropwizard {@link Environment}.
+     *
+     * @param environment         the Dropwizard environment
+     * @param sharedParentContext the shared parent context
+     * @param context             the Spring application context
+     */
+    private void registerSharedParentContextMetrics(Environment environment, SharedParentContext sharedParentContext,
+                                                    ConfigurableApplicationContext context) {
+        ConfigurableApplicationContext parent = sharedParentContext.getContext();
+        MetricRegistry metrics = environment.metrics();
+        metrics.register(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "applications"), (Gauge<Integer>) sharedParentContext::getReferences);
+        metrics.register(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "beans"), (Gauge<Integer>) parent::getBeanDefinitionCount);
+        metrics.register(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "child-beans"), (Gauge<Integer>) context::getBeanDefinitionCount);
+    }
+
+    /**
+     * Register the retained heap footprints of the {@link SharedParentContext}, computed in the background every heap
+     * footprint refresh interval, and of the Spring application context in Dropwizard {@link Environment}.
+     *
+     * @param environment         the Dropwizard environment
+     * @param sharedParentContext the shared parent context
+     * @param footprint           the heap footprint of the Spring application context
+     */
+    private void registerSharedParentContextFootprints(Environment environment, SharedParentContext sharedParentContext,
+                                                       HeapFootprint footprint) {
+        HeapFootprint parentFootprint = sharedParentContext.scheduleFootprint(heapFootprintRefreshIntervalMs);
+        MetricRegistry metrics = environment.metrics();
+        metrics.register(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "retained-bytes"),
+                (Gauge<Long>) () -> retainedBytes(parentFootprint));
+        metrics.register(MetricRegistry.name(SharedParentContext.class, sharedParentContextName, "child-retained-bytes"),
+                (Gauge<Long>) () -> retainedBytes(footprint));
+    }
+
+    /**
+     * Compute the {@link HeapFootprint} on a thread of the Dropwizard {@link Environment} once the application is
+     * started, then every refresh interval.
+     *
+     * @param environment the Dropwizard environment
+     * @param footprint   the heap footprint
+     * @param nameFormat  the name format of the thread
+     */
+    private void scheduleHeapFootprint(Environment environment, HeapFootprint footprint, String nameFormat) {
+        ScheduledExecutorService executor = environment.lifecycle().scheduledExecutorService(nameFormat).threads(1).build();
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+                footprint.scheduleRefresh(executor);
+            }
+
+            @Override
+            public void stop() {
+            }
+        });
+    }
+
+    private static long retainedBytes(HeapFootprint footprint) {
+        HeapFootprintReport report = footprint.getLastReport();
+        return report != null ? report.getRetainedBytes() : 0L;
+    }
+
     private void registerConfiguration(Environment environment, T configuration, ConfigurableApplicationContext context)
             throws IOException {
         ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
@@ -331,4 +896,104 @@ public class SpringBundle<T extends Configuration> implements ConfiguredBundle<T
         beanFactory.registerSingleton(objectMapperBeanName, objectMapper);
         LOG.info("Registering Dropwizard ObjectMapper under name : " + objectMapperBeanName);
     }
+
+    /**
+     * Add the {@link TracingBeanPostProcessor} proxying the beans of the traced packages to the Spring application context.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     spring application context
+     */
+    private Tracer registerTracer(Environment environment, ConfigurableApplicationContext context) {
+        Tracer tracer = new Tracer(traceSampleRate, traceBufferSize, environment.metrics());
+        context.getBeanFactory().addBeanPostProcessor(new TracingBeanPostProcessor(tracer, tracedPackages));
+        LOG.info("Tracing " + traceSampleRate * 100 + "% of requests through packages : " + String.join(", ", tracedPackages));
+        return tracer;
+    }
+
+    /**
+     * Add the {@link DataSourceInstrumentingBeanPostProcessor} wrapping {@link DataSource} beans to the Spring application context.
+     *
+     * @param environment the Dropwizard environment
+     * @param context     spring application context
+     */
+    private void registerDataSourceInstrumentation(Environment environment, ConfigurableApplicationContext context) {
+        context.getBeanFactory().addBeanPostProcessor(new DataSourceInstrumentingBeanPostProcessor(environment.metrics(), slowStatementThresholdMs));
+        LOG.info("Instrumenting data sources with a slow statement threshold of " + slowStatementThresholdMs + " ms");
+    }
+
+    /**
+     * Register the {@link ConfigurationConditionReport} and add the {@link ConfigurationConditionPostProcessor} removing
+     * the bean definitions of disabled groups to the Spring application context.
+     *
+     * @param context spring application context
+     */
+    private ConfigurationConditionReport registerConfigurationConditions(ConfigurableApplicationContext context) {
+        ConfigurationConditionReport conditionReport = new ConfigurationConditionReport();
+        context.getBeanFactory().registerSingleton(ConfigurationConditionReport.BEAN_NAME, conditionReport);
+        context.addBeanFactoryPostProcessor(new ConfigurationConditionPostProcessor(context.getEnvironment(), conditionReport));
+        LOG.info("Evaluating configuration conditions");
+        return conditionReport;
+    }
+
+    /**
+     * Register the bean definitions cached by the {@link BeanDefinitionCache} in the Spring application context, or
+     * capture them during the refresh.
+     *
+     * @param environment   the Dropwizard environment
+     * @param configuration the Dropwizard configuration
+     * @param context       spring application context
+     */
+    private BeanDefinitionCache registerBeanDefinitionCache(Environment environment, T configuration, ConfigurableApplicationContext context) {
+        BeanDefinitionCache beanDefinitionCache = new BeanDefinitionCache(new File(beanDefinitionCacheFile), environment.getObjectMapper(), environment.metrics());
+        beanDefinitionCache.apply(context, configuration);
+        return beanDefinitionCache;
+    }
+
+    /**
+     * Store the bean definitions captured by the {@link BeanDefinitionCache} during the refresh, the application runs
+     * without the cache when they cannot be stored.
+     *
+     * @param beanDefinitionCache the bean definition cache
+     */
+    private void storeBeanDefinitionCache(BeanDefinitionCache beanDefinitionCache) {
+        try {
+            beanDefinitionCache.store();
+        } catch (IOException e) {
+            LOG.warn("Unable to store the bean definition cache " + beanDefinitionCacheFile + ", the next boot will parse the configuration classes again", e);
+        }
+    }
+
+    /**
+     * Log the beans skipped by the configuration conditions and register the number of conditions that did not match
+     * per group in the Dropwizard {@link Environment}.
+     *
+     * @param environment     the Dropwizard environment
+     * @param conditionReport the outcome of the configuration conditions
+     */
+    private void reportConfigurationConditions(Environment environment, ConfigurationConditionReport conditionReport) {
+        for (String group : conditionReport.getGroups()) {
+            Set<String> skippedBeans = conditionReport.getSkippedBeans(group);
+            LOG.info("Skipped " + skippedBeans.size() + " conditional beans of group '" + group + "'"
+                    + (skippedBeans.isEmpty() ? "" : " : " + String.join(", ", skippedBeans)));
+            environment.metrics().register(MetricRegistry.name(ConditionalOnConfiguration.class, "skipped-conditions", group),
+                    (Gauge<Integer>) () -> conditionReport.getSkippedCount(group));
+        }
+    }
+
+    /**
+     * Install Afterburner on Dropwizard {@link ObjectMapper} and register its {@link ObjectMapperCache} as a Spring Bean.
+     *
+     * @param objectMapper Dropwizard {@link ObjectMapper}
+     * @param context      spring application context
+     */
+    private ObjectMapperCache registerObjectMapperCache(ObjectMapper objectMapper, ConfigurableApplicationContext context) {
+        // Dropwizard's default mapper already has Afterburner, duplicate registrations are ignored
+        objectMapper.registerModule(new AfterburnerModule());
+
+        ObjectMapperCache objectMapperCache = new ObjectMapperCache(objectMapper);
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        beanFactory.registerSingleton(objectMapperCacheBeanName, objectMapperCache);
+        LOG.info("Registering Dropwizard ObjectMapper cache under name : " + objectMapperCacheBeanName);
+        return objectMapperCache;
+    }
 }
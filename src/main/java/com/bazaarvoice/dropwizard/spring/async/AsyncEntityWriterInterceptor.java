@@ -0,0 +1,50 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import org.springframework.core.ResolvableType;
+
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Future;
+
+/**
+ * Writes the values of the futures completed through {@link AsyncResponses} as instances of the type argument of the
+ * future, since Jersey types them with the future type declared by the resource method, for which no message body
+ * writer is found.
+ */
+class AsyncEntityWriterInterceptor implements WriterInterceptor {
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object entity = context.getEntity();
+        if (entity != null) {
+            ResolvableType declaredType = ResolvableType.forType(context.getGenericType());
+            Class<?> declaredClass = declaredType.resolve();
+            if (declaredClass != null && AsyncResponses.isAsync(declaredClass) && !declaredClass.isInstance(entity)) {
+                context.setGenericType(entityType(declaredType, entity));
+            }
+        }
+        context.proceed();
+    }
+
+    /**
+     * Returns the type argument of the future, or the class of the entity if it is not an instance of it, such as the
+     * entity of a {@link javax.ws.rs.core.Response} the future completed with.
+     */
+    private static Type entityType(ResolvableType futureType, Object entity) {
+        ResolvableType valueType = futureType.as(CompletionStage.class);
+        if (valueType == ResolvableType.NONE) {
+            valueType = futureType.as(Future.class);
+        }
+        ResolvableType argument = valueType.getGeneric(0);
+        Class<?> argumentClass = argument.resolve();
+        if (argumentClass == null || !argumentClass.isInstance(entity)) {
+            return entity.getClass();
+        }
+        return argument.getType() instanceof Class || argument.getType() instanceof ParameterizedType
+                ? argument.getType() : argumentClass;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import com.codahale.metrics.MetricRegistry;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+import org.glassfish.jersey.server.spi.internal.ResourceMethodInvocationHandlerProvider;
+
+import javax.inject.Singleton;
+import javax.ws.rs.ext.WriterInterceptor;
+import java.util.concurrent.Executor;
+
+/**
+ * Lets Jersey resource methods return a {@link java.util.concurrent.CompletionStage}, Spring or Guava
+ * {@code ListenableFuture}, completed through {@link AsyncResponses} on the given continuation executor.  The values
+ * of the futures are written as instances of their type argument.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class AsyncResourceBinder extends AbstractBinder {
+
+    private final Executor continuationExecutor;
+    private final MetricRegistry metrics;
+
+    public AsyncResourceBinder(Executor continuationExecutor, MetricRegistry metrics) {
+        this.continuationExecutor = continuationExecutor;
+        this.metrics = metrics;
+    }
+
+    @Override
+    protected void configure() {
+        bind(new AsyncResponses(continuationExecutor, metrics)).to(AsyncResponses.class);
+        bind(AsyncResourceInvocationHandlerProvider.class).to(ResourceMethodInvocationHandlerProvider.class).in(Singleton.class);
+        bind(AsyncEntityWriterInterceptor.class).to(WriterInterceptor.class).in(Singleton.class);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import org.glassfish.jersey.server.internal.process.AsyncContext;
+import org.glassfish.jersey.server.model.Invocable;
+import org.glassfish.jersey.server.model.Parameter;
+import org.glassfish.jersey.server.spi.internal.ResourceMethodInvocationHandlerProvider;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes the resource methods returning a future through {@link AsyncResponses}, unless they already take an
+ * {@link javax.ws.rs.container.AsyncResponse} parameter.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class AsyncResourceInvocationHandlerProvider implements ResourceMethodInvocationHandlerProvider {
+
+    private final Provider<AsyncContext> asyncContext;
+    private final AsyncResponses asyncResponses;
+
+    @Inject
+    public AsyncResourceInvocationHandlerProvider(Provider<AsyncContext> asyncContext, AsyncResponses asyncResponses) {
+        this.asyncContext = asyncContext;
+        this.asyncResponses = asyncResponses;
+    }
+
+    @Override
+    public InvocationHandler create(Invocable invocable) {
+        if (!AsyncResponses.isAsync(invocable.getRawResponseType())) {
+            return null;
+        }
+        for (Parameter parameter : invocable.getParameters()) {
+            if (parameter.getSource() == Parameter.Source.SUSPENDED) {
+                return null;
+            }
+        }
+        long timeoutMillis = timeoutMillis(invocable);
+        return (target, method, args) -> asyncResponses.suspend(asyncContext.get(), method.invoke(target, args), timeoutMillis);
+    }
+
+    private static long timeoutMillis(Invocable invocable) {
+        Method method = invocable.getDefinitionMethod();
+        AsyncTimeout timeout = AnnotationUtils.findAnnotation(method, AsyncTimeout.class);
+        if (timeout == null) {
+            timeout = AnnotationUtils.findAnnotation(invocable.getHandler().getHandlerClass(), AsyncTimeout.class);
+        }
+        return timeout == null ? 0 : timeout.unit().toMillis(timeout.value());
+    }
+}
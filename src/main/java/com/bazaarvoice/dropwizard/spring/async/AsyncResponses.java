@@ -0,0 +1,158 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.glassfish.jersey.server.internal.process.AsyncContext;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.core.Response;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Suspends the requests whose resource method returned a pending {@link CompletionStage}, Spring
+ * {@link org.springframework.util.concurrent.ListenableFuture} or Guava
+ * {@link com.google.common.util.concurrent.ListenableFuture}, and resumes them with its outcome on the continuation
+ * executor, so that no server thread waits for it.
+ * <p/>
+ * The number of suspended requests, the time they are suspended, their failures and timeouts are recorded in the
+ * metric registry.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class AsyncResponses {
+
+    private final Executor continuationExecutor;
+    private final Counter suspended;
+    private final Timer suspendedTime;
+    private final Meter failures;
+    private final Meter timeouts;
+
+    public AsyncResponses(Executor continuationExecutor, MetricRegistry metrics) {
+        this.continuationExecutor = continuationExecutor;
+        this.suspended = metrics.counter(name(AsyncResponses.class, "suspended"));
+        this.suspendedTime = metrics.timer(name(AsyncResponses.class, "suspended-time"));
+        this.failures = metrics.meter(name(AsyncResponses.class, "failures"));
+        this.timeouts = metrics.meter(name(AsyncResponses.class, "timeouts"));
+    }
+
+    /**
+     * Whether resource methods returning the type are completed asynchronously.
+     */
+    public static boolean isAsync(Class<?> type) {
+        return CompletionStage.class.isAssignableFrom(type)
+                || org.springframework.util.concurrent.ListenableFuture.class.isAssignableFrom(type)
+                || isGuavaListenableFuture(type);
+    }
+
+    /**
+     * Returns the value of a completed future, or suspends the request until the future completes and returns null.
+     * Requests are resumed right away with the {@link Response} a completed future holds.
+     *
+     * @param context       the asynchronous context of the request
+     * @param future        the future returned by the resource method, possibly null
+     * @param timeoutMillis the time the future may take to complete, or 0 to wait for it as long as needed
+     * @throws InvocationTargetException wrapping the failure of a completed future, to map it as an exception
+     *                                   thrown by the resource method
+     */
+    public Object suspend(AsyncContext context, Object future, long timeoutMillis) throws InvocationTargetException {
+        if (future == null) {
+            return null;
+        }
+        if (future instanceof CompletionStage && !(future instanceof Future)) {
+            future = ((CompletionStage<?>) future).toCompletableFuture();
+        }
+        if (((Future<?>) future).isDone()) {
+            Object value;
+            try {
+                value = Uninterruptibles.getUninterruptibly((Future<?>) future);
+            } catch (ExecutionException e) {
+                throw new InvocationTargetException(e.getCause());
+            } catch (CancellationException e) {
+                throw new InvocationTargetException(e);
+            }
+            if (!(value instanceof Response)) {
+                return value;
+            }
+            // Jersey writes the value returned by the resource method as the entity of a 200, so responses resume it
+            if (!context.suspend()) {
+                throw new ProcessingException("Unable to suspend the request");
+            }
+            context.resume(value);
+            return null;
+        }
+
+        if (!context.suspend()) {
+            throw new ProcessingException("Unable to suspend the request");
+        }
+        suspended.inc();
+        Timer.Context time = suspendedTime.time();
+        if (timeoutMillis > 0) {
+            Future<?> pending = (Future<?>) future;
+            context.setTimeoutHandler(response -> {
+                timeouts.mark();
+                response.resume(new ServiceUnavailableException());
+                pending.cancel(true);
+            });
+            context.setTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        whenComplete(future, (value, failure) -> {
+            suspended.dec();
+            time.stop();
+            if (failure == null) {
+                context.resume(value);
+            } else if (!(failure instanceof CancellationException) || !context.isDone()) {
+                failures.mark();
+                context.resume(failure);
+            }
+        });
+        return null;
+    }
+
+    @SuppressWarnings ("unchecked")
+    private void whenComplete(Object future, BiConsumer<Object, Throwable> callback) {
+        if (future instanceof CompletionStage) {
+            ((CompletionStage<Object>) future).whenCompleteAsync(
+                    (value, failure) -> callback.accept(value, unwrap(failure)), continuationExecutor);
+        } else if (future instanceof org.springframework.util.concurrent.ListenableFuture) {
+            ((org.springframework.util.concurrent.ListenableFuture<Object>) future).addCallback(
+                    value -> continuationExecutor.execute(() -> callback.accept(value, null)),
+                    failure -> continuationExecutor.execute(() -> callback.accept(null, failure)));
+        } else {
+            com.google.common.util.concurrent.ListenableFuture<Object> listenableFuture = (com.google.common.util.concurrent.ListenableFuture<Object>) future;
+            listenableFuture.addListener(() -> {
+                try {
+                    callback.accept(Uninterruptibles.getUninterruptibly(listenableFuture), null);
+                } catch (ExecutionException e) {
+                    callback.accept(null, e.getCause());
+                } catch (CancellationException e) {
+                    callback.accept(null, e);
+                }
+            }, continuationExecutor);
+        }
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    private static boolean isGuavaListenableFuture(Class<?> type) {
+        try {
+            return com.google.common.util.concurrent.ListenableFuture.class.isAssignableFrom(type);
+        } catch (NoClassDefFoundError e) {
+            return false;
+        }
+    }
+}
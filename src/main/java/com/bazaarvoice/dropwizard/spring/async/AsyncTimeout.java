@@ -0,0 +1,22 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time a resource method (or every method of a resource class) returning a future may take to complete it.  Once
+ * elapsed, the future is cancelled and the request gets a {@code 503 Service Unavailable} response.
+ */
+@Documented
+@Retention (RetentionPolicy.RUNTIME)
+@Target ({ElementType.TYPE, ElementType.METHOD})
+public @interface AsyncTimeout {
+
+    long value();
+
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
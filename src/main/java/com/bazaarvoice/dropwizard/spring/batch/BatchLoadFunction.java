@@ -0,0 +1,20 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads many values with a single downstream call.  Spring beans implementing this interface are picked up by the
+ * {@link com.bazaarvoice.dropwizard.spring.SpringBundle} when batch loading is enabled, and are called through the
+ * {@link DataLoader} returned by {@link BatchScope#loader(BatchLoadFunction)}.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public interface BatchLoadFunction<K, V> {
+
+    /**
+     * Loads the values of the given keys.  Keys missing from the returned map resolve to null.
+     */
+    Map<K, V> load(Set<K> keys) throws Exception;
+}
@@ -0,0 +1,39 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Batch sizes and coalescing ratio (requested loads per loaded key) of a single {@link BatchLoadFunction}.
+ */
+class BatchLoaderMetrics {
+
+    private final Meter loads;
+    private final Meter loadedKeys;
+    private final Histogram batchSizes;
+
+    BatchLoaderMetrics(MetricRegistry metrics, String functionName) {
+        this.loads = metrics.meter(name(DataLoader.class, functionName, "loads"));
+        this.loadedKeys = metrics.meter(name(DataLoader.class, functionName, "loaded-keys"));
+        this.batchSizes = metrics.histogram(name(DataLoader.class, functionName, "batch-size"));
+        metrics.register(name(DataLoader.class, functionName, "coalescing-ratio"), new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(loads.getCount(), loadedKeys.getCount());
+            }
+        });
+    }
+
+    void markLoad() {
+        loads.mark();
+    }
+
+    void markBatch(int size) {
+        loadedKeys.mark(size);
+        batchSizes.update(size);
+    }
+}
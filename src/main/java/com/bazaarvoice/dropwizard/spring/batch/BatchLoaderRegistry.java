@@ -0,0 +1,41 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import com.codahale.metrics.MetricRegistry;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Creates the {@link DataLoader}s of a {@link BatchScope}, sharing the batching settings and the metrics of the
+ * {@link BatchLoadFunction} beans of the Spring application context.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class BatchLoaderRegistry {
+
+    private final Map<BatchLoadFunction<?, ?>, BatchLoaderMetrics> metrics = new IdentityHashMap<>();
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final long batchWindowMillis;
+
+    /**
+     * @param functions         the batch load functions, by bean name
+     * @param metricRegistry    the registry receiving the batch sizes and coalescing ratios
+     * @param maxBatchSize      the maximum number of keys loaded by a single call
+     * @param scheduler         the scheduler dispatching queued keys once the batch window elapses, or null
+     * @param batchWindowMillis the time queued keys wait for other keys before being dispatched
+     */
+    public BatchLoaderRegistry(Map<String, ? extends BatchLoadFunction<?, ?>> functions, MetricRegistry metricRegistry,
+                               int maxBatchSize, ScheduledExecutorService scheduler, long batchWindowMillis) {
+        for (Map.Entry<String, ? extends BatchLoadFunction<?, ?>> function : functions.entrySet()) {
+            metrics.put(function.getValue(), new BatchLoaderMetrics(metricRegistry, function.getKey()));
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    <K, V> DataLoader<K, V> newLoader(BatchLoadFunction<K, V> function) {
+        return new DataLoader<>(function, metrics.get(function), maxBatchSize, scheduler, batchWindowMillis);
+    }
+}
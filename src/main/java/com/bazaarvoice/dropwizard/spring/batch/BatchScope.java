@@ -0,0 +1,97 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The per-request set of {@link DataLoader}s.  Loads made through the same scope are deduplicated and memoized until
+ * the scope is closed.
+ * <p/>
+ * A scope is bound to the thread it is opened on, which is how {@link #loader} finds it, but it is owned by whoever
+ * opened it: it may be closed from any thread, and opening another scope on the same thread only replaces the binding,
+ * leaving the previous scope to its owner.
+ */
+@SuppressWarnings ("WeakerAccess")
+public final class BatchScope {
+
+    private static final ThreadLocal<BatchScope> CURRENT = new ThreadLocal<>();
+
+    private final BatchLoaderRegistry registry;
+    private final Map<BatchLoadFunction<?, ?>, DataLoader<?, ?>> loaders = new IdentityHashMap<>();
+    private volatile boolean closed;
+
+    private BatchScope(BatchLoaderRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Returns the loader of the function in the current scope.  Outside of an open scope, a new loader is returned on
+     * every call, so loads are still batched but not memoized across calls.
+     */
+    @SuppressWarnings ("unchecked")
+    public static <K, V> DataLoader<K, V> loader(BatchLoadFunction<K, V> function) {
+        BatchScope scope = CURRENT.get();
+        if (scope == null || scope.closed) {
+            return new DataLoader<>(function, null, Integer.MAX_VALUE, null, 0);
+        }
+        synchronized (scope.loaders) {
+            return (DataLoader<K, V>) scope.loaders.computeIfAbsent(function, scope.registry::newLoader);
+        }
+    }
+
+    /**
+     * Opens a new scope and binds it to the current thread, in place of any scope bound to it.
+     */
+    public static BatchScope open(BatchLoaderRegistry registry) {
+        BatchScope scope = new BatchScope(registry);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static boolean isActive() {
+        BatchScope scope = CURRENT.get();
+        return scope != null && !scope.closed;
+    }
+
+    /**
+     * Dispatches the keys queued in this scope and unbinds it from the current thread, if it is bound to it, leaving it
+     * open.  Keys queued by the thread are not left waiting for a scope that may only be closed once they are loaded.
+     */
+    public void unbind() {
+        release();
+        dispatch();
+    }
+
+    /**
+     * Dispatches the keys still queued in this scope, and unbinds it from the current thread.  Closing a scope more than
+     * once has no effect.
+     */
+    public void close() {
+        release();
+        synchronized (loaders) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        dispatch();
+    }
+
+    private void release() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    private void dispatch() {
+        List<DataLoader<?, ?>> pending;
+        synchronized (loaders) {
+            pending = new ArrayList<>(loaders.values());
+        }
+        for (DataLoader<?, ?> loader : pending) {
+            loader.dispatch();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+/**
+ * Opens a {@link BatchScope} when a Jersey request starts and closes it once its response is produced.
+ * <p/>
+ * The scope is kept in a request property rather than looked up from the thread, since the response of a suspended
+ * request is produced on whichever thread resumes it.  The scope is unbound from the request thread as soon as the
+ * resource method returns, so that a suspended request does not leave its scope behind on a pooled thread.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class BatchScopeFilter implements ContainerRequestFilter, ContainerResponseFilter, ApplicationEventListener {
+
+    static final String SCOPE_PROPERTY = BatchScope.class.getName();
+
+    private final BatchLoaderRegistry registry;
+
+    public BatchScopeFilter(BatchLoaderRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(SCOPE_PROPERTY, BatchScope.open(registry));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object scope = request.getProperty(SCOPE_PROPERTY);
+        if (scope instanceof BatchScope) {
+            ((BatchScope) scope).close();
+        }
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() == RequestEvent.Type.RESOURCE_METHOD_FINISHED) {
+                Object scope = event.getContainerRequest().getProperty(SCOPE_PROPERTY);
+                if (scope instanceof BatchScope) {
+                    ((BatchScope) scope).unbind();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces the loads of a {@link BatchLoadFunction} into batched calls and memoizes their results.
+ * <p/>
+ * {@link #load(Object)} only queues the key; queued keys are loaded when {@link #dispatch()} is called, when
+ * the maximum batch size is reached, when the batch window (if any) elapses, when the enclosing {@link BatchScope} is
+ * unbound or closed, or when one of the futures returned by this loader is waited on.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+@SuppressWarnings ("WeakerAccess")
+public class DataLoader<K, V> {
+
+    private final BatchLoadFunction<K, V> function;
+    private final BatchLoaderMetrics metrics;
+    private final int maxBatchSize;
+    private final ScheduledExecutorService scheduler;
+    private final long batchWindowMillis;
+
+    private final Map<K, CompletableFuture<V>> futures = new HashMap<>();
+    private final List<K> pending = new ArrayList<>();
+    private boolean dispatchScheduled;
+
+    DataLoader(BatchLoadFunction<K, V> function, BatchLoaderMetrics metrics, int maxBatchSize,
+               ScheduledExecutorService scheduler, long batchWindowMillis) {
+        Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be positive");
+        this.function = function;
+        this.metrics = metrics;
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchWindowMillis = batchWindowMillis;
+    }
+
+    /**
+     * Queues the key, unless it was already requested through this loader, and returns the future of its value.
+     */
+    public CompletableFuture<V> load(K key) {
+        CompletableFuture<V> future;
+        boolean full;
+        synchronized (this) {
+            if (metrics != null) metrics.markLoad();
+            future = futures.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new LoadFuture<>();
+            futures.put(key, future);
+            pending.add(key);
+            full = pending.size() >= maxBatchSize;
+            if (!full && scheduler != null && !dispatchScheduled) {
+                dispatchScheduled = true;
+                scheduler.schedule(this::dispatch, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full) {
+            dispatch();
+        }
+        return future;
+    }
+
+    /**
+     * Queues every key and returns the future of their values, in the same order.
+     */
+    public CompletableFuture<List<V>> loadMany(Collection<K> keys) {
+        List<CompletableFuture<V>> loads = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            loads.add(load(key));
+        }
+        CompletableFuture<List<V>> future = new LoadFuture<>();
+        CompletableFuture.allOf(loads.toArray(new CompletableFuture<?>[loads.size()])).thenApply(ignored -> {
+            List<V> values = new ArrayList<>(loads.size());
+            for (CompletableFuture<V> load : loads) {
+                values.add(load.join());
+            }
+            return values;
+        }).whenComplete((values, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(values);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Loads the key, along with every other queued key, and waits for its value.
+     */
+    public V get(K key) {
+        return load(key).join();
+    }
+
+    /**
+     * Loads every queued key, in batches of at most the maximum batch size.
+     */
+    public void dispatch() {
+        while (true) {
+            List<K> batch;
+            synchronized (this) {
+                dispatchScheduled = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                int size = Math.min(pending.size(), maxBatchSize);
+                batch = new ArrayList<>(pending.subList(0, size));
+                pending.subList(0, size).clear();
+            }
+            loadBatch(batch);
+        }
+    }
+
+    private void loadBatch(List<K> batch) {
+        if (metrics != null) metrics.markBatch(batch.size());
+
+        List<CompletableFuture<V>> batchFutures = new ArrayList<>(batch.size());
+        synchronized (this) {
+            for (K key : batch) {
+                batchFutures.add(futures.get(key));
+            }
+        }
+
+        Map<K, V> values;
+        try {
+            values = function.load(new LinkedHashSet<>(batch));
+        } catch (Exception e) {
+            for (CompletableFuture<V> future : batchFutures) {
+                future.completeExceptionally(e);
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batchFutures.get(i).complete(values == null ? null : values.get(batch.get(i)));
+        }
+    }
+
+    /**
+     * Dispatches the queued keys of the loader before waiting for its value, so that waiting on a load neither waits
+     * for the batch window nor hangs when nothing else is left to dispatch the key.
+     */
+    private class LoadFuture<T> extends CompletableFuture<T> {
+
+        @Override
+        public T join() {
+            dispatchUnlessDone();
+            return super.join();
+        }
+
+        @Override
+        public T get() throws InterruptedException, ExecutionException {
+            dispatchUnlessDone();
+            return super.get();
+        }
+
+        @Override
+        public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            dispatchUnlessDone();
+            return super.get(timeout, unit);
+        }
+
+        private void dispatchUnlessDone() {
+            if (!isDone()) {
+                dispatch();
+            }
+        }
+    }
+}
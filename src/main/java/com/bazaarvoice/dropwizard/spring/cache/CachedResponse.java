@@ -0,0 +1,23 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET resource method (or every GET method of a resource class) whose responses may be served from the
+ * {@link ResponseCache} installed by the {@link com.bazaarvoice.dropwizard.spring.SpringBundle}.
+ */
+@Documented
+@Retention (RetentionPolicy.RUNTIME)
+@Target ({ElementType.METHOD, ElementType.TYPE})
+public @interface CachedResponse {
+
+    /**
+     * Names of the request headers whose values are part of the cache key, in addition to the path, the query and the
+     * negotiated media type.
+     */
+    String[] varyHeaders() default {};
+}
@@ -0,0 +1,230 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * A size-bounded, least-recently-used cache of serialized responses.
+ * <p/>
+ * Entity bytes are copied into direct buffers so that large caches live outside the Java heap and do not add to
+ * garbage collection pause times.  The memory budget only accounts for the entity bytes.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    private final Meter hits;
+    private final Meter misses;
+    private final Meter evictions;
+
+    public ResponseCache(long maxBytes, MetricRegistry metrics) {
+        Preconditions.checkArgument(maxBytes > 0, "maxBytes must be positive");
+        this.maxBytes = maxBytes;
+        this.hits = metrics.meter(name(ResponseCache.class, "hits"));
+        this.misses = metrics.meter(name(ResponseCache.class, "misses"));
+        this.evictions = metrics.meter(name(ResponseCache.class, "evictions"));
+        metrics.register(name(ResponseCache.class, "bytes"), (Gauge<Long>) this::getUsedBytes);
+        metrics.register(name(ResponseCache.class, "entries"), (Gauge<Integer>) this::size);
+    }
+
+    /**
+     * Returns the cached entry for the key, or null (recording a miss) if there is none.
+     */
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.mark();
+        } else {
+            hits.mark();
+        }
+        return entry;
+    }
+
+    /**
+     * Stores the entity bytes under the key, evicting the least recently used entries to stay within the budget.
+     *
+     * @return the new entry, or null if the entity alone is larger than the budget
+     */
+    public synchronized Entry put(String key, byte[] body, MediaType mediaType) {
+        return put(key, body, mediaType, Collections.emptyMap());
+    }
+
+    /**
+     * Stores the entity bytes and the response headers to replay under the key, evicting the least recently used
+     * entries to stay within the budget.
+     *
+     * @return the new entry, or null if the entity alone is larger than the budget
+     */
+    public synchronized Entry put(String key, byte[] body, MediaType mediaType, Map<String, List<String>> headers) {
+        if (body.length > maxBytes) {
+            return null;
+        }
+        Entry entry = new Entry(body, mediaType, headers);
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            usedBytes -= previous.size();
+        }
+        usedBytes += entry.size();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext()) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            usedBytes -= evicted.size();
+            evictions.mark();
+        }
+        return entry;
+    }
+
+    /**
+     * Removes every entry whose key (the request path followed by the query and vary headers) starts with the path
+     * prefix, on a path segment boundary: {@code /hello} removes {@code /hello?name=a} and {@code /hello/a}, but not
+     * {@code /helloworld}.
+     *
+     * @return the number of removed entries
+     */
+    public synchronized int invalidate(String prefix) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Entry> entry = iterator.next();
+            if (matchesPathPrefix(entry.getKey(), prefix)) {
+                usedBytes -= entry.getValue().size();
+                iterator.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Removes every entry.
+     *
+     * @return the number of removed entries
+     */
+    public synchronized int invalidateAll() {
+        int removed = entries.size();
+        entries.clear();
+        usedBytes = 0;
+        return removed;
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private static boolean matchesPathPrefix(String key, String prefix) {
+        if (!key.startsWith(prefix)) {
+            return false;
+        }
+        if (key.length() == prefix.length() || prefix.endsWith("/")) {
+            return true;
+        }
+        char next = key.charAt(prefix.length());
+        return next == '/' || next == '?' || next == '|';
+    }
+
+    /**
+     * A cached entity, stored off-heap, along with its media type, entity tag and the response headers to replay.
+     */
+    public static class Entry {
+        private final ByteBuffer body;
+        private final MediaType mediaType;
+        private final EntityTag entityTag;
+        private final Map<String, List<String>> headers;
+
+        private Entry(byte[] body, MediaType mediaType, Map<String, List<String>> headers) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(body.length);
+            // Buffer.flip(), since ByteBuffer.flip() only exists from Java 9
+            ((Buffer) buffer.put(body)).flip();
+            this.body = buffer.asReadOnlyBuffer();
+            this.mediaType = mediaType;
+            this.entityTag = new EntityTag(Hashing.murmur3_128().hashBytes(body).toString());
+            Map<String, List<String>> copy = new LinkedHashMap<>();
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                copy.put(header.getKey(), Collections.unmodifiableList(new ArrayList<>(header.getValue())));
+            }
+            this.headers = Collections.unmodifiableMap(copy);
+        }
+
+        public int size() {
+            return body.capacity();
+        }
+
+        /**
+         * Copies the entity bytes back onto the heap.
+         */
+        public byte[] getBody() {
+            byte[] bytes = new byte[body.capacity()];
+            body.duplicate().get(bytes);
+            return bytes;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        public EntityTag getEntityTag() {
+            return entityTag;
+        }
+
+        /**
+         * The response headers, other than the content type, length and entity tag, of the cached response.
+         */
+        public Map<String, List<String>> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Whether the value of an {@code If-None-Match} header matches this entry's entity tag.
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null) {
+                return false;
+            }
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*")) {
+                    return true;
+                }
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                    tag = tag.substring(1, tag.length() - 1);
+                }
+                if (tag.equals(entityTag.getValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
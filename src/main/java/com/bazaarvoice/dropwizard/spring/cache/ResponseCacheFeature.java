@@ -0,0 +1,60 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import org.springframework.core.annotation.AnnotationUtils;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.MediaType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Installs a {@link ResponseCacheFilter} on every GET resource method annotated (directly or through its class)
+ * with {@link CachedResponse}.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ResponseCacheFeature implements DynamicFeature {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheFeature(ResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+        Method method = resourceInfo.getResourceMethod();
+        if (method == null || AnnotationUtils.findAnnotation(method, GET.class) == null) {
+            return;
+        }
+        CachedResponse cachedResponse = AnnotationUtils.findAnnotation(method, CachedResponse.class);
+        if (cachedResponse == null) {
+            cachedResponse = AnnotationUtils.findAnnotation(resourceInfo.getResourceClass(), CachedResponse.class);
+        }
+        if (cachedResponse != null) {
+            context.register(new ResponseCacheFilter(cache, cachedResponse.varyHeaders(), producedTypes(resourceInfo)));
+        }
+    }
+
+    private static List<MediaType> producedTypes(ResourceInfo resourceInfo) {
+        Produces produces = AnnotationUtils.findAnnotation(resourceInfo.getResourceMethod(), Produces.class);
+        if (produces == null) {
+            produces = AnnotationUtils.findAnnotation(resourceInfo.getResourceClass(), Produces.class);
+        }
+        if (produces == null) {
+            return Collections.singletonList(MediaType.WILDCARD_TYPE);
+        }
+        List<MediaType> producedTypes = new ArrayList<>();
+        for (String value : produces.value()) {
+            for (String type : value.split(",")) {
+                producedTypes.add(MediaType.valueOf(type.trim()));
+            }
+        }
+        return producedTypes;
+    }
+}
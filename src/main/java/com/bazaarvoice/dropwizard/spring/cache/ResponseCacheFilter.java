@@ -0,0 +1,174 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import com.google.common.collect.ImmutableSet;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.RuntimeDelegate;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Serves {@link CachedResponse} methods from the {@link ResponseCache} and stores the serialized entity of
+ * successful responses that were not found in it, along with their headers.
+ * <p/>
+ * The cache key is made of the request path and query, the media type negotiated between the {@code Accept} header
+ * and the media types produced by the method, and the vary headers.
+ */
+class ResponseCacheFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String CACHE_KEY_PROPERTY = ResponseCacheFilter.class.getName() + ".key";
+
+    /**
+     * Headers describing the entity bytes themselves, or specific to a single response, which are never replayed.
+     */
+    private static final Set<String> EXCLUDED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        EXCLUDED_HEADERS.addAll(ImmutableSet.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.ETAG,
+                HttpHeaders.DATE, HttpHeaders.SET_COOKIE, "Transfer-Encoding", "Connection"));
+    }
+
+    /**
+     * Headers sent along with a {@code 304 Not Modified}, as required by RFC 7232.
+     */
+    private static final Set<String> NOT_MODIFIED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    static {
+        NOT_MODIFIED_HEADERS.addAll(ImmutableSet.of(HttpHeaders.CACHE_CONTROL, HttpHeaders.CONTENT_LOCATION,
+                HttpHeaders.EXPIRES, HttpHeaders.VARY));
+    }
+
+    private final ResponseCache cache;
+    private final String[] varyHeaders;
+    private final List<MediaType> producedTypes;
+
+    ResponseCacheFilter(ResponseCache cache, String[] varyHeaders, List<MediaType> producedTypes) {
+        this.cache = cache;
+        this.varyHeaders = varyHeaders;
+        this.producedTypes = producedTypes;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!HttpMethod.GET.equals(request.getMethod())) {
+            return;
+        }
+        String key = cacheKey(request);
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry == null) {
+            request.setProperty(CACHE_KEY_PROPERTY, key);
+        } else if (entry.matches(request.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+            Response.ResponseBuilder response = Response.notModified(entry.getEntityTag());
+            for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+                if (NOT_MODIFIED_HEADERS.contains(header.getKey())) {
+                    header.getValue().forEach(value -> response.header(header.getKey(), value));
+                }
+            }
+            request.abortWith(response.build());
+        } else {
+            Response.ResponseBuilder response = Response.ok(entry.getBody(), entry.getMediaType()).tag(entry.getEntityTag());
+            for (Map.Entry<String, List<String>> header : entry.getHeaders().entrySet()) {
+                header.getValue().forEach(value -> response.header(header.getKey(), value));
+            }
+            request.abortWith(response.build());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        // Only successful responses with an entity are worth caching
+        if (response.getStatus() != Response.Status.OK.getStatusCode() || !response.hasEntity()) {
+            request.removeProperty(CACHE_KEY_PROPERTY);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        Object key = context.getProperty(CACHE_KEY_PROPERTY);
+        if (key == null) {
+            context.proceed();
+            return;
+        }
+
+        OutputStream original = context.getOutputStream();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        context.setOutputStream(buffer);
+        context.proceed();
+
+        // The response filters have all run by now, so the headers are complete
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Object>> header : context.getHeaders().entrySet()) {
+            if (!EXCLUDED_HEADERS.contains(header.getKey())) {
+                List<String> values = new ArrayList<>();
+                for (Object value : header.getValue()) {
+                    values.add(headerValue(value));
+                }
+                headers.put(header.getKey(), values);
+            }
+        }
+
+        byte[] body = buffer.toByteArray();
+        ResponseCache.Entry entry = cache.put((String) key, body, context.getMediaType(), headers);
+        if (entry != null) {
+            // Headers are still writable since nothing has reached the original stream yet
+            context.getHeaders().putSingle(HttpHeaders.ETAG, entry.getEntityTag());
+        }
+        context.setOutputStream(original);
+        original.write(body);
+    }
+
+    private String cacheKey(ContainerRequestContext request) {
+        URI uri = request.getUriInfo().getRequestUri();
+        StringBuilder key = new StringBuilder(uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            key.append('?').append(uri.getRawQuery());
+        }
+        key.append('|').append(negotiatedType(request.getAcceptableMediaTypes()));
+        for (String header : varyHeaders) {
+            String value = request.getHeaderString(header);
+            key.append('|').append(header).append('=').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+
+    /**
+     * The most specific of the first produced and acceptable (in order of preference) media types that are compatible,
+     * or an empty string if there is none, in which case the request fails with a 406 and is not cached.
+     */
+    String negotiatedType(List<MediaType> acceptableTypes) {
+        for (MediaType acceptable : acceptableTypes) {
+            for (MediaType produced : producedTypes) {
+                if (produced.isCompatible(acceptable)) {
+                    MediaType negotiated = produced.isWildcardType() || produced.isWildcardSubtype() ? acceptable : produced;
+                    return negotiated.getType() + "/" + negotiated.getSubtype();
+                }
+            }
+        }
+        return "";
+    }
+
+    @SuppressWarnings ("unchecked")
+    private static String headerValue(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        RuntimeDelegate.HeaderDelegate<Object> delegate =
+                (RuntimeDelegate.HeaderDelegate<Object>) RuntimeDelegate.getInstance().createHeaderDelegate(value.getClass());
+        return delegate != null ? delegate.toString(value) : value.toString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+import java.util.Collection;
+
+/**
+ * Admin task invalidating the {@link ResponseCache}.  Every {@code path} parameter removes the entries for requests
+ * whose path is, or is below, its value; without any {@code path} parameter the whole cache is cleared.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ResponseCacheInvalidationTask extends Task {
+
+    private final ResponseCache cache;
+
+    public ResponseCacheInvalidationTask(ResponseCache cache) {
+        super("invalidate-response-cache");
+        this.cache = cache;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+        Collection<String> paths = parameters.get("path");
+        int removed = 0;
+        if (paths.isEmpty()) {
+            removed = cache.invalidateAll();
+        } else {
+            for (String path : paths) {
+                removed += cache.invalidate(path);
+            }
+        }
+        output.println("Invalidated " + removed + " cached responses.");
+    }
+}
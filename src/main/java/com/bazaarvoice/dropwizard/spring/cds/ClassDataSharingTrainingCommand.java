@@ -0,0 +1,231 @@
+package com.bazaarvoice.dropwizard.spring.cds;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import io.dropwizard.Application;
+import io.dropwizard.Configuration;
+import io.dropwizard.cli.EnvironmentCommand;
+import io.dropwizard.setup.Environment;
+import net.sourceforge.argparse4j.inf.Namespace;
+import net.sourceforge.argparse4j.inf.Subparser;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StreamUtils;
+
+import javax.management.ObjectName;
+import javax.ws.rs.Path;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Boots the application, warms it up with requests to its resources, then writes the list of loaded classes and the
+ * launcher settings needed to build and use an application class-data-sharing (AppCDS) archive from it.
+ * <p/>
+ * The class list is recorded by the JVM itself when it is launched with {@code -XX:DumpLoadedClassList=<file>},
+ * otherwise it is read through the {@code VM.class_hierarchy} diagnostic command (Java 9 and later).  Generated
+ * classes (lambdas, CGLIB proxies, Afterburner accessors) cannot be archived and are left out, and so are the classes
+ * loaded from directories: the application must run from jar files to benefit from the archive.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ClassDataSharingTrainingCommand<T extends Configuration> extends EnvironmentCommand<T> {
+
+    public static final String CLASS_LIST_FILE = "classes.lst";
+    public static final String ARCHIVE_FILE = "app.jsa";
+    public static final String DUMP_OPTIONS_FILE = "cds-dump.jvmopts";
+    public static final String RUN_OPTIONS_FILE = "cds-run.jvmopts";
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClassDataSharingTrainingCommand.class);
+    private static final String DUMP_LOADED_CLASS_LIST = "-XX:DumpLoadedClassList=";
+
+    private final Application<T> application;
+    private final SpringBundle<?> bundle;
+
+    public ClassDataSharingTrainingCommand(Application<T> application, SpringBundle<?> bundle) {
+        super(application, "cds-training", "Boots and warms up the application to record the classes of a class-data-sharing archive");
+        this.application = application;
+        this.bundle = bundle;
+    }
+
+    @Override
+    protected Class<T> getConfigurationClass() {
+        return application.getConfigurationClass();
+    }
+
+    @Override
+    public void configure(Subparser subparser) {
+        super.configure(subparser);
+        subparser.addArgument("--output-dir").dest("outputDir").setDefault("cds")
+                .help("directory receiving the class list and launcher settings");
+        subparser.addArgument("--warmup-requests").dest("warmupRequests").type(Integer.class).setDefault(100)
+                .help("number of GET requests sent to every warm-up path");
+        subparser.addArgument("--warmup-path").dest("warmupPaths").nargs("*")
+                .help("paths to warm up, defaults to the paths of the Spring resources without templates");
+    }
+
+    @Override
+    protected void run(Environment environment, Namespace namespace, T configuration) throws Exception {
+        File outputDir = new File(namespace.getString("outputDir"));
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Unable to create " + outputDir);
+        }
+
+        Server server = configuration.getServerFactory().build(environment);
+        server.start();
+        try {
+            warmUp(server, environment, namespace);
+        } finally {
+            server.stop();
+        }
+
+        File classList = new File(outputDir, CLASS_LIST_FILE);
+        String dumpedClassList = dumpedClassList();
+        if (dumpedClassList != null) {
+            classList = new File(dumpedClassList);
+            LOG.info("The JVM writes the loaded classes to " + classList + " when it exits");
+        } else {
+            List<String> classes = loadedClasses();
+            Files.write(classList.toPath(), classes, StandardCharsets.UTF_8);
+            LOG.info("Recorded " + classes.size() + " loaded classes in " + classList);
+        }
+
+        File archive = new File(outputDir, ARCHIVE_FILE);
+        String classPath = ManagementFactory.getRuntimeMXBean().getClassPath();
+        for (String entry : classPath.split(File.pathSeparator)) {
+            if (new File(entry).isDirectory()) {
+                LOG.warn("The class path entry " + entry + " is a directory, which cannot be archived, package it as a jar");
+            }
+        }
+        Files.write(new File(outputDir, DUMP_OPTIONS_FILE).toPath(), Arrays.asList(
+                "-Xshare:dump",
+                quoted("-XX:SharedClassListFile=" + classList.getAbsolutePath()),
+                quoted("-XX:SharedArchiveFile=" + archive.getAbsolutePath()),
+                "-cp",
+                quoted(classPath)), StandardCharsets.UTF_8);
+        Files.write(new File(outputDir, RUN_OPTIONS_FILE).toPath(), Arrays.asList(
+                "-Xshare:auto",
+                quoted("-XX:SharedArchiveFile=" + archive.getAbsolutePath())), StandardCharsets.UTF_8);
+        LOG.info("Build the archive with 'java @" + new File(outputDir, DUMP_OPTIONS_FILE) + "' (Java 10 or later), "
+                + "then launch the application with 'java @" + new File(outputDir, RUN_OPTIONS_FILE) + " ...' "
+                + "and the same class path");
+    }
+
+    private void warmUp(Server server, Environment environment, Namespace namespace) throws IOException {
+        int port = applicationPort(server);
+        int requests = namespace.getInt("warmupRequests");
+        List<String> paths = namespace.getList("warmupPaths");
+        if (paths == null || paths.isEmpty()) {
+            paths = resourcePaths(environment);
+        }
+
+        for (String path : paths) {
+            URL url = new URL("http", "localhost", port, path);
+            for (int i = 0; i < requests; i++) {
+                HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                int status = connection.getResponseCode();
+                try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    if (body != null) StreamUtils.drain(body);
+                }
+            }
+            LOG.info("Warmed up " + url + " with " + requests + " requests");
+        }
+    }
+
+    private List<String> resourcePaths(Environment environment) {
+        String rootPath = environment.jersey().getUrlPattern().replaceAll("/?\\*$", "");
+        Set<String> paths = new LinkedHashSet<>();
+        for (Object resource : bundle.getContext().getBeansWithAnnotation(Path.class).values()) {
+            String path = AnnotationUtils.findAnnotation(ClassUtils.getUserClass(resource), Path.class).value();
+            if (!path.contains("{")) {
+                paths.add(rootPath + (path.startsWith("/") ? path : "/" + path));
+            }
+        }
+        return new ArrayList<>(paths);
+    }
+
+    private static int applicationPort(Server server) {
+        ServerConnector first = null;
+        for (Connector connector : server.getConnectors()) {
+            if (connector instanceof ServerConnector) {
+                if ("application".equals(connector.getName())) {
+                    return ((ServerConnector) connector).getLocalPort();
+                }
+                if (first == null) first = (ServerConnector) connector;
+            }
+        }
+        if (first == null) {
+            throw new IllegalStateException("The server has no network connector to warm up");
+        }
+        return first.getLocalPort();
+    }
+
+    private static String dumpedClassList() {
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith(DUMP_LOADED_CLASS_LIST)) {
+                return argument.substring(DUMP_LOADED_CLASS_LIST.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Quotes an argument of a {@code java @argfile}, so that paths may contain spaces, backslashes or quotes.
+     */
+    static String quoted(String argument) {
+        return '"' + argument.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    /**
+     * Lists the loaded classes, in the internal form expected by {@code -XX:SharedClassListFile}.
+     */
+    static List<String> loadedClasses() {
+        String hierarchy;
+        try {
+            hierarchy = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"), "vmClassHierarchy",
+                    new Object[] {new String[0]}, new String[] {String[].class.getName()});
+        } catch (Exception e) {
+            throw new IllegalStateException("Unable to list the loaded classes, launch the JVM with "
+                    + DUMP_LOADED_CLASS_LIST + "<file> instead", e);
+        }
+        return parseClassHierarchy(hierarchy);
+    }
+
+    /**
+     * Parses the output of {@code VM.class_hierarchy}, where every line is a (possibly indented) class name followed
+     * by the address of its class loader, with an additional address segment for hidden classes.
+     */
+    static List<String> parseClassHierarchy(String hierarchy) {
+        Set<String> classes = new LinkedHashSet<>();
+        for (String line : hierarchy.split("\n")) {
+            String entry = line.replaceFirst("^[|\\- ]*", "").replaceFirst(" \\(intf\\)$", "").trim();
+            String[] segments = entry.split("/");
+            if (segments.length != 2 || segments[0].isEmpty() || isGenerated(segments[0])) {
+                continue;
+            }
+            classes.add(segments[0].replace('.', '/'));
+        }
+        return new ArrayList<>(classes);
+    }
+
+    private static boolean isGenerated(String className) {
+        return className.contains("$$Lambda") || className.startsWith("java.lang.invoke.LambdaForm$")
+                || className.contains("$$EnhancerBySpringCGLIB$$") || className.contains("$$FastClassBySpringCGLIB$$")
+                || className.contains("4JacksonSerializer") || className.contains("4JacksonDeserializer")
+                || className.startsWith("com.sun.proxy.") || className.startsWith("jdk.proxy");
+    }
+}
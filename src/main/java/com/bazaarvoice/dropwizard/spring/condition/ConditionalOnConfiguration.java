@@ -0,0 +1,50 @@
+package com.bazaarvoice.dropwizard.spring.condition;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Only defines the annotated component, configuration class or {@code @Bean} method when a property of the Dropwizard
+ * {@link io.dropwizard.Configuration} has the given value, or contains it when the property is a list.  Property names
+ * are matched exactly, as the configuration serializes them, while values are compared ignoring case.  Components and
+ * configuration classes that do not match are removed before the context is refreshed, so none of their beans is ever
+ * defined.
+ * <p/>
+ * Evaluated when {@code SpringBundle.enableConfigurationConditions(true)} is set, and ignored otherwise.  For example :
+ * <pre>
+ * &#64;Configuration
+ * &#64;ConditionalOnConfiguration(value = "roles", havingValue = "worker")
+ * public class WorkerConfiguration { ... }
+ * </pre>
+ */
+@Documented
+@Retention (RetentionPolicy.RUNTIME)
+@Target ({ElementType.TYPE, ElementType.METHOD})
+@Conditional (OnConfigurationCondition.class)
+public @interface ConditionalOnConfiguration {
+
+    /**
+     * The configuration property, such as {@code roles} or {@code worker.enabled}, case sensitive.
+     */
+    String value();
+
+    /**
+     * The value the property must have, or contain, ignoring case.
+     */
+    String havingValue() default "true";
+
+    /**
+     * Whether to define the beans when the property is missing, null or empty.
+     */
+    boolean matchIfMissing() default false;
+
+    /**
+     * The group the skipped definitions are reported under, defaults to the property.
+     */
+    String group() default "";
+}
@@ -0,0 +1,47 @@
+package com.bazaarvoice.dropwizard.spring.condition;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotationMetadata;
+
+/**
+ * Removes the components and configuration classes registered before the Dropwizard configuration was known (by
+ * scanning, usually) whose {@link ConditionalOnConfiguration} does not match.  It must run before the configuration
+ * classes are parsed, so that the beans they define or import are never defined either.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ConfigurationConditionPostProcessor implements BeanDefinitionRegistryPostProcessor {
+
+    private final Environment environment;
+    private final ConfigurationConditionReport report;
+
+    public ConfigurationConditionPostProcessor(Environment environment, ConfigurationConditionReport report) {
+        this.environment = environment;
+        this.report = report;
+    }
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) throws BeansException {
+        for (String beanName : registry.getBeanDefinitionNames()) {
+            BeanDefinition beanDefinition = registry.getBeanDefinition(beanName);
+            if (!(beanDefinition instanceof AnnotatedBeanDefinition)) {
+                continue;
+            }
+            AnnotationMetadata metadata = ((AnnotatedBeanDefinition) beanDefinition).getMetadata();
+            if (metadata.isAnnotated(ConditionalOnConfiguration.class.getName())
+                    && !OnConfigurationCondition.matches(environment, metadata, report)) {
+                registry.removeBeanDefinition(beanName);
+            }
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        // nothing doing
+    }
+}
@@ -0,0 +1,54 @@
+package com.bazaarvoice.dropwizard.spring.condition;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The beans skipped by {@link ConditionalOnConfiguration} conditions, by group.  A group is listed, possibly with no
+ * skipped bean, as soon as one of its conditions has been evaluated.
+ * <p/>
+ * The skipped beans are the annotated components, configuration classes and {@code @Bean} methods whose condition did
+ * not match: the beans a skipped configuration class would have defined or imported are never parsed, so they are not
+ * listed.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ConfigurationConditionReport {
+
+    public static final String BEAN_NAME = "dwConfigurationConditionReport";
+
+    private final Map<String, Set<String>> skippedBeans = new TreeMap<>();
+
+    synchronized void evaluated(String group, String bean, boolean matches) {
+        Set<String> skipped = skippedBeans.computeIfAbsent(group, key -> new TreeSet<>());
+        if (!matches) {
+            skipped.add(bean);
+        }
+    }
+
+    /**
+     * Records beans skipped by conditions evaluated by an earlier boot, whose bean definitions were cached.
+     */
+    public synchronized void restore(String group, Set<String> skipped) {
+        skippedBeans.computeIfAbsent(group, key -> new TreeSet<>()).addAll(skipped);
+    }
+
+    public synchronized Set<String> getGroups() {
+        return Collections.unmodifiableSet(new TreeSet<>(skippedBeans.keySet()));
+    }
+
+    public synchronized Set<String> getSkippedBeans(String group) {
+        Set<String> skipped = skippedBeans.get(group);
+        return skipped == null ? Collections.emptySet() : Collections.unmodifiableSet(new TreeSet<>(skipped));
+    }
+
+    /**
+     * The number of conditions of the group that did not match.
+     */
+    public synchronized int getSkippedCount(String group) {
+        Set<String> skipped = skippedBeans.get(group);
+        return skipped == null ? 0 : skipped.size();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bazaarvoice.dropwizard.spring.condition;
+
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * The condition of {@link ConditionalOnConfiguration}.  Components are usually scanned before the Dropwizard
+ * configuration is known: they match until the {@link ConfigurationConditionPostProcessor} evaluates them again, once
+ * the {@link ConfigurationConditionReport} has been registered.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class OnConfigurationCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        ConfigurableListableBeanFactory beanFactory = context.getBeanFactory();
+        if (beanFactory == null || !beanFactory.containsSingleton(ConfigurationConditionReport.BEAN_NAME)) {
+            return true;
+        }
+        ConfigurationConditionReport report = (ConfigurationConditionReport) beanFactory.getSingleton(ConfigurationConditionReport.BEAN_NAME);
+        return matches(context.getEnvironment(), metadata, report);
+    }
+
+    /**
+     * Evaluates the {@link ConditionalOnConfiguration} of the metadata against the environment, recording the outcome
+     * in the report.
+     */
+    static boolean matches(Environment environment, AnnotatedTypeMetadata metadata, ConfigurationConditionReport report) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnConfiguration.class.getName());
+        if (attributes == null) {
+            return true;
+        }
+        String property = (String) attributes.get("value");
+        String havingValue = (String) attributes.get("havingValue");
+        String group = StringUtils.hasText((String) attributes.get("group")) ? (String) attributes.get("group") : property;
+
+        // Null configuration fields are exposed as empty properties
+        String value = environment.getProperty(property);
+        boolean matches = !StringUtils.hasText(value) ? (Boolean) attributes.get("matchIfMissing") : contains(value, havingValue);
+        report.evaluated(group, describe(metadata), matches);
+        return matches;
+    }
+
+    /**
+     * Whether the value, or one of the elements of a comma delimited list, is the expected value, ignoring case.
+     */
+    private static boolean contains(String value, String havingValue) {
+        if (value.trim().equalsIgnoreCase(havingValue)) {
+            return true;
+        }
+        for (String element : StringUtils.commaDelimitedListToStringArray(value)) {
+            if (element.trim().equalsIgnoreCase(havingValue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(AnnotatedTypeMetadata metadata) {
+        if (metadata instanceof ClassMetadata) {
+            return ((ClassMetadata) metadata).getClassName();
+        }
+        if (metadata instanceof MethodMetadata) {
+            return ((MethodMetadata) metadata).getDeclaringClassName() + "." + ((MethodMetadata) metadata).getMethodName();
+        }
+        return metadata.toString();
+    }
+}
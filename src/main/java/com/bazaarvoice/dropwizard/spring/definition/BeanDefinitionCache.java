@@ -0,0 +1,269 @@
+package com.bazaarvoice.dropwizard.spring.definition;
+
+import com.bazaarvoice.dropwizard.spring.condition.ConfigurationConditionReport;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.SpringVersion;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * A file caching the bean definitions resolved from the configuration classes of a Spring application context, so
+ * that later boots register them directly and the configuration classes are not parsed again.
+ * <p/>
+ * The cache is keyed by a hash of the class path (the size and modification time of its files), the Dropwizard
+ * configuration, the active and default profiles, and the bean definitions registered before the refresh.  Conditions
+ * depending on anything else are not evaluated again on cache hits, and applications relying on them must not use the
+ * cache.  The beans skipped by {@link ConfigurationConditionReport configuration conditions} are cached along with the
+ * definitions, and restored in the report on cache hits.  Hits, misses and invalidations are logged and counted in the
+ * metric registry.
+ * <p/>
+ * The definitions are captured right after the configuration classes are parsed, before the other
+ * {@link BeanDefinitionRegistryPostProcessor}s run: those are defined by the cached definitions and register theirs again
+ * on every boot.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class BeanDefinitionCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BeanDefinitionCache.class);
+    private static final int FORMAT_VERSION = 2;
+
+    private final File file;
+    private final ObjectMapper objectMapper;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+    private String key;
+    private Set<String> existingBeanNames;
+    private List<BeanDefinitionDescriptor> captured;
+    private Map<String, Set<String>> capturedSkippedBeans;
+
+    public BeanDefinitionCache(File file, ObjectMapper objectMapper, MetricRegistry metrics) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+        this.hits = metrics.counter(name(BeanDefinitionCache.class, "hits"));
+        this.misses = metrics.counter(name(BeanDefinitionCache.class, "misses"));
+        this.invalidations = metrics.counter(name(BeanDefinitionCache.class, "invalidations"));
+    }
+
+    /**
+     * Registers the cached bean definitions in the context, which must not be refreshed yet, when the cache is valid.
+     * Otherwise captures the bean definitions resolved during the refresh, to be {@link #store() stored} afterwards.
+     *
+     * @param configuration the Dropwizard configuration
+     * @return whether the cache was valid
+     */
+    public boolean apply(ConfigurableApplicationContext context, Object configuration) {
+        Preconditions.checkArgument(context instanceof BeanDefinitionRegistry, "The context must be a BeanDefinitionRegistry");
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) context;
+        existingBeanNames = new HashSet<>(Arrays.asList(registry.getBeanDefinitionNames()));
+        try {
+            key = key(context, configuration);
+        } catch (IOException e) {
+            LOG.warn("Not caching bean definitions, unable to compute the cache key", e);
+            return false;
+        }
+
+        CachedBeanDefinitions cached = read();
+        if (cached != null && key.equals(cached.key)) {
+            long start = System.nanoTime();
+            ClassLoader classLoader = context.getClassLoader();
+            try {
+                for (BeanDefinitionDescriptor descriptor : cached.definitions) {
+                    descriptor.register(registry, classLoader);
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Unable to register the bean definitions cached in " + file + ", delete it", e);
+            }
+            ConfigurationConditionReport report = conditionReport(context.getBeanFactory());
+            if (report != null) {
+                cached.skippedBeans.forEach(report::restore);
+            }
+            hits.inc();
+            LOG.info(String.format("Bean definition cache hit: registered %d bean definitions from %s in %.1f ms",
+                    cached.definitions.size(), file, (System.nanoTime() - start) / 1e6));
+            return true;
+        }
+
+        if (cached != null) {
+            invalidations.inc();
+            LOG.info("Bean definition cache invalidated: the class path, configuration, profiles or bean definitions changed");
+        }
+        misses.inc();
+        LOG.info("Bean definition cache miss: the bean definitions will be stored in " + file + " once the context is refreshed");
+        context.getBeanFactory().registerSingleton(CapturingPostProcessor.class.getName(), new CapturingPostProcessor(context.getClassLoader()));
+        return false;
+    }
+
+    /**
+     * Stores the bean definitions captured during the refresh, if any.
+     */
+    public void store() throws IOException {
+        if (captured == null) {
+            return;
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        CachedBeanDefinitions cached = new CachedBeanDefinitions();
+        cached.key = key;
+        cached.definitions = captured;
+        cached.skippedBeans = capturedSkippedBeans;
+        File temporary = new File(directory, file.getName() + ".tmp");
+        objectMapper.writeValue(temporary, cached);
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        LOG.info("Stored " + captured.size() + " bean definitions in " + file);
+        captured = null;
+        capturedSkippedBeans = null;
+    }
+
+    /**
+     * Describes the bean definitions once the configuration classes have been parsed, before the other bean definition
+     * registry post processors run, along with the beans skipped by configuration conditions.
+     */
+    void capture(ConfigurableListableBeanFactory beanFactory, ClassLoader classLoader) {
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) beanFactory;
+        List<BeanDefinitionDescriptor> descriptors = new ArrayList<>();
+        try {
+            for (String beanName : registry.getBeanDefinitionNames()) {
+                descriptors.add(BeanDefinitionDescriptor.describe(registry, beanName, existingBeanNames.contains(beanName), classLoader));
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.info("Not caching bean definitions: " + e.getMessage());
+            return;
+        }
+        captured = descriptors;
+        capturedSkippedBeans = new TreeMap<>();
+        ConfigurationConditionReport report = conditionReport(beanFactory);
+        if (report != null) {
+            for (String group : report.getGroups()) {
+                capturedSkippedBeans.put(group, report.getSkippedBeans(group));
+            }
+        }
+    }
+
+    private static ConfigurationConditionReport conditionReport(ConfigurableListableBeanFactory beanFactory) {
+        return beanFactory.containsSingleton(ConfigurationConditionReport.BEAN_NAME)
+                ? (ConfigurationConditionReport) beanFactory.getSingleton(ConfigurationConditionReport.BEAN_NAME) : null;
+    }
+
+    private CachedBeanDefinitions read() {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(file, CachedBeanDefinitions.class);
+        } catch (IOException e) {
+            LOG.warn("Ignoring the unreadable bean definition cache " + file + ": " + e.getMessage());
+            return new CachedBeanDefinitions();
+        }
+    }
+
+    private String key(ConfigurableApplicationContext context, Object configuration) throws IOException {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putInt(FORMAT_VERSION)
+                .putString(String.valueOf(SpringVersion.getVersion()), StandardCharsets.UTF_8);
+        for (String entry : ManagementFactory.getRuntimeMXBean().getClassPath().split(File.pathSeparator)) {
+            hasher.putString(entry, StandardCharsets.UTF_8);
+            putFiles(hasher, new File(entry).toPath());
+        }
+        try {
+            hasher.putBytes(objectMapper.writeValueAsBytes(configuration));
+        } catch (JsonProcessingException e) {
+            throw new IOException("Unable to serialize the configuration", e);
+        }
+        hasher.putString(String.join(",", context.getEnvironment().getActiveProfiles()), StandardCharsets.UTF_8)
+                .putString(String.join(",", context.getEnvironment().getDefaultProfiles()), StandardCharsets.UTF_8);
+        BeanDefinitionRegistry registry = (BeanDefinitionRegistry) context;
+        for (String beanName : new TreeSet<>(existingBeanNames)) {
+            hasher.putString(beanName, StandardCharsets.UTF_8)
+                    .putString(String.valueOf(registry.getBeanDefinition(beanName).getBeanClassName()), StandardCharsets.UTF_8);
+        }
+        return hasher.hash().toString();
+    }
+
+    private static void putFiles(Hasher hasher, Path path) throws IOException {
+        if (Files.isRegularFile(path)) {
+            hasher.putLong(Files.size(path)).putLong(Files.getLastModifiedTime(path).toMillis());
+        } else if (Files.isDirectory(path)) {
+            try (Stream<Path> files = Files.walk(path)) {
+                for (Path child : (Iterable<Path>) files.filter(Files::isRegularFile).sorted()::iterator) {
+                    hasher.putString(path.relativize(child).toString(), StandardCharsets.UTF_8)
+                            .putLong(Files.size(child)).putLong(Files.getLastModifiedTime(child).toMillis());
+                }
+            }
+        }
+    }
+
+    /**
+     * The content of the cache file.
+     */
+    static class CachedBeanDefinitions {
+        @JsonProperty
+        private String key;
+        @JsonProperty
+        private List<BeanDefinitionDescriptor> definitions = new ArrayList<>();
+        @JsonProperty
+        private Map<String, Set<String>> skippedBeans = new TreeMap<>();
+    }
+
+    /**
+     * Registered as a singleton rather than added to the context, so that it runs among the bean definition registry post
+     * processors defined as beans: with the lowest priority, right after the {@code ConfigurationClassPostProcessor}.
+     */
+    private class CapturingPostProcessor implements BeanDefinitionRegistryPostProcessor, PriorityOrdered {
+
+        private final ClassLoader classLoader;
+
+        private CapturingPostProcessor(ClassLoader classLoader) {
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+            capture((ConfigurableListableBeanFactory) registry, classLoader);
+        }
+
+        @Override
+        public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+            // nothing doing
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.bazaarvoice.dropwizard.spring.definition;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.annotation.AnnotatedGenericBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportAware;
+import org.springframework.context.annotation.ImportResource;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.annotation.PropertySources;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The serializable form of a bean definition registered while the configuration classes were parsed, or of the
+ * configuration class attributes of a bean definition registered beforehand.
+ * <p/>
+ * Only plain definitions can be described: definitions with constructor arguments, property values, method overrides,
+ * qualifiers or a parent, configuration classes importing property sources or resources, and {@link ImportAware}
+ * classes are rejected with an {@link IllegalArgumentException}.
+ */
+@JsonInclude (JsonInclude.Include.NON_DEFAULT)
+@SuppressWarnings ("WeakerAccess")
+public class BeanDefinitionDescriptor {
+
+    @JsonProperty
+    private String name;
+    @JsonProperty
+    private boolean existing;
+    @JsonProperty
+    private String[] aliases;
+    @JsonProperty
+    private String beanClassName;
+    @JsonProperty
+    private String factoryBeanName;
+    @JsonProperty
+    private String factoryMethodName;
+    @JsonProperty
+    private boolean uniqueFactoryMethod;
+    @JsonProperty
+    private String scope;
+    @JsonProperty
+    private boolean lazyInit;
+    @JsonProperty
+    private boolean primary;
+    @JsonProperty
+    private boolean notAutowireCandidate;
+    @JsonProperty
+    private int autowireMode;
+    @JsonProperty
+    private String[] dependsOn;
+    @JsonProperty
+    private String initMethodName;
+    @JsonProperty
+    private String destroyMethodName;
+    @JsonProperty
+    private int role;
+    @JsonProperty
+    private String description;
+    @JsonProperty
+    private Map<String, Object> attributes = new LinkedHashMap<>();
+
+    /**
+     * Describes a bean definition of the registry.
+     *
+     * @param existing whether the definition was registered before the configuration classes were parsed, in which
+     *                 case only its attributes are described
+     */
+    public static BeanDefinitionDescriptor describe(BeanDefinitionRegistry registry, String name, boolean existing, ClassLoader classLoader) {
+        BeanDefinition beanDefinition = registry.getBeanDefinition(name);
+        if (!(beanDefinition instanceof AbstractBeanDefinition)) {
+            throw new IllegalArgumentException("bean '" + name + "' has an unsupported " + beanDefinition.getClass().getSimpleName());
+        }
+        AbstractBeanDefinition definition = (AbstractBeanDefinition) beanDefinition;
+        String className = className(definition);
+        if (className != null && ImportAware.class.isAssignableFrom(resolve(className, classLoader))) {
+            throw new IllegalArgumentException("bean '" + name + "' is ImportAware");
+        }
+        if (definition instanceof AnnotatedBeanDefinition) {
+            AnnotationMetadata metadata = ((AnnotatedBeanDefinition) definition).getMetadata();
+            if (definition.getFactoryMethodName() == null && (metadata.hasAnnotation(PropertySource.class.getName())
+                    || metadata.hasAnnotation(PropertySources.class.getName()) || metadata.hasAnnotation(ImportResource.class.getName()))) {
+                throw new IllegalArgumentException("bean '" + name + "' imports property sources or resources");
+            }
+        }
+
+        BeanDefinitionDescriptor descriptor = new BeanDefinitionDescriptor();
+        descriptor.name = name;
+        descriptor.existing = existing;
+        descriptor.attributes = attributes(name, definition);
+        if (existing) {
+            return descriptor;
+        }
+
+        if (definition.hasConstructorArgumentValues() || !definition.getPropertyValues().isEmpty()
+                || !definition.getMethodOverrides().isEmpty() || !definition.getQualifiers().isEmpty()
+                || definition.getParentName() != null || definition.isAbstract()) {
+            throw new IllegalArgumentException("bean '" + name + "' has constructor arguments, properties, method overrides, qualifiers or a parent");
+        }
+        descriptor.aliases = registry.getAliases(name);
+        descriptor.beanClassName = className;
+        descriptor.factoryBeanName = definition.getFactoryBeanName();
+        descriptor.factoryMethodName = definition.getFactoryMethodName();
+        if (descriptor.factoryMethodName != null) {
+            String factoryClassName = descriptor.factoryBeanName != null
+                    ? className((AbstractBeanDefinition) registry.getBeanDefinition(descriptor.factoryBeanName)) : className;
+            descriptor.uniqueFactoryMethod = isUniqueFactoryMethod(resolve(factoryClassName, classLoader), descriptor.factoryMethodName);
+        }
+        descriptor.scope = definition.getScope();
+        descriptor.lazyInit = definition.isLazyInit();
+        descriptor.primary = definition.isPrimary();
+        descriptor.notAutowireCandidate = !definition.isAutowireCandidate();
+        descriptor.autowireMode = definition.getAutowireMode();
+        descriptor.dependsOn = definition.getDependsOn();
+        descriptor.initMethodName = definition.getInitMethodName();
+        descriptor.destroyMethodName = definition.getDestroyMethodName();
+        descriptor.role = definition.getRole();
+        descriptor.description = definition.getDescription();
+        return descriptor;
+    }
+
+    /**
+     * Registers the described bean definition, or sets the described attributes on the existing one.
+     */
+    public void register(BeanDefinitionRegistry registry, ClassLoader classLoader) {
+        if (existing) {
+            if (registry.containsBeanDefinition(name)) {
+                BeanDefinition definition = registry.getBeanDefinition(name);
+                attributes.forEach(definition::setAttribute);
+            }
+            return;
+        }
+
+        AbstractBeanDefinition definition;
+        if (factoryMethodName != null) {
+            RootBeanDefinition factoryMethodDefinition = new RootBeanDefinition();
+            factoryMethodDefinition.setBeanClassName(beanClassName);
+            factoryMethodDefinition.setFactoryBeanName(factoryBeanName);
+            if (uniqueFactoryMethod) {
+                factoryMethodDefinition.setUniqueFactoryMethodName(factoryMethodName);
+            } else {
+                factoryMethodDefinition.setFactoryMethodName(factoryMethodName);
+            }
+            definition = factoryMethodDefinition;
+        } else {
+            // Reflection based metadata, configuration class candidates are not read again with ASM
+            definition = new AnnotatedGenericBeanDefinition(resolve(beanClassName, classLoader));
+        }
+        definition.setScope(scope);
+        definition.setLazyInit(lazyInit);
+        definition.setPrimary(primary);
+        definition.setAutowireCandidate(!notAutowireCandidate);
+        definition.setAutowireMode(autowireMode);
+        definition.setDependsOn(dependsOn);
+        definition.setInitMethodName(initMethodName);
+        definition.setDestroyMethodName(destroyMethodName);
+        definition.setRole(role);
+        definition.setDescription(description);
+        attributes.forEach(definition::setAttribute);
+        registry.registerBeanDefinition(name, definition);
+        if (aliases != null) {
+            for (String alias : aliases) {
+                registry.registerAlias(name, alias);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isExisting() {
+        return existing;
+    }
+
+    /**
+     * The name of the class of the definition, before the configuration classes are enhanced.
+     */
+    private static String className(AbstractBeanDefinition definition) {
+        if (definition instanceof AnnotatedBeanDefinition && definition.getFactoryBeanName() == null) {
+            // The class itself, or the class declaring the static @Bean method
+            return ((AnnotatedBeanDefinition) definition).getMetadata().getClassName();
+        }
+        String className = definition.getBeanClassName();
+        if (className != null && className.contains(ClassUtils.CGLIB_CLASS_SEPARATOR)) {
+            throw new IllegalArgumentException("bean class " + className + " is generated");
+        }
+        return className;
+    }
+
+    private static Map<String, Object> attributes(String name, AbstractBeanDefinition definition) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (String attribute : definition.attributeNames()) {
+            Object value = definition.getAttribute(attribute);
+            if (!(value instanceof String || value instanceof Boolean || value instanceof Integer)) {
+                throw new IllegalArgumentException("bean '" + name + "' has an unsupported attribute " + attribute);
+            }
+            attributes.put(attribute, value);
+        }
+        return attributes;
+    }
+
+    private static boolean isUniqueFactoryMethod(Class<?> factoryClass, String factoryMethodName) {
+        return Arrays.stream(ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(factoryClass)))
+                .filter(method -> method.getName().equals(factoryMethodName))
+                .filter(method -> AnnotatedElementUtils.isAnnotated(method, Bean.class.getName()))
+                .count() == 1;
+    }
+
+    private static Class<?> resolve(String className, ClassLoader classLoader) {
+        try {
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new IllegalArgumentException("bean class " + className + " cannot be loaded", e);
+        }
+    }
+}
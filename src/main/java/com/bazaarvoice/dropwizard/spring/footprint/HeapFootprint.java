@@ -0,0 +1,281 @@
+package com.bazaarvoice.dropwizard.spring.footprint;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationContext;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Estimates the heap footprint of the singletons of a Spring bean factory by walking the object graph reachable from
+ * every singleton, with the {@link ObjectGraphSizer}.
+ * <p/>
+ * The walk of a singleton stops at the other singletons, which are reported on their own, at the singletons of the
+ * parent bean factories, and at the classes, class loaders, threads, enums and bean factories, which are not owned by
+ * any bean.  Every object is counted once, so cycles do not matter: the objects only reachable from one singleton
+ * make its retained size, and the objects reachable from several singletons are reported as shared.
+ * <p/>
+ * The retained sizes of the largest singletons are registered as gauges named
+ * {@code HeapFootprint.retained-bytes.<bean>}, along with the total retained and shared sizes.  Since walking the
+ * heap is expensive, the gauges never compute it: they read the last report, which is computed again in the background
+ * every refresh interval once {@link #scheduleRefresh scheduled}, and by the {@link HeapFootprintTask}.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class HeapFootprint {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeapFootprint.class);
+    private static final int SHARED = -1;
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final ObjectGraphSizer sizer;
+    private final MetricRegistry metrics;
+    private final int topBeans;
+    private final long refreshIntervalMillis;
+    private final Set<String> gauges = new HashSet<>();
+    private volatile HeapFootprintReport report;
+
+    public HeapFootprint(ConfigurableListableBeanFactory beanFactory, ObjectGraphSizer sizer, MetricRegistry metrics,
+                         int topBeans, long refreshIntervalMillis) {
+        Preconditions.checkArgument(metrics == null || topBeans > 0, "topBeans must be positive");
+        Preconditions.checkArgument(refreshIntervalMillis > 0, "refreshIntervalMillis must be positive");
+        this.beanFactory = beanFactory;
+        this.sizer = sizer;
+        this.metrics = metrics;
+        this.topBeans = topBeans;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+        if (metrics != null) {
+            metrics.register(name(HeapFootprint.class, "retained-bytes"), (Gauge<Long>) () -> {
+                HeapFootprintReport last = report;
+                return last != null ? last.getRetainedBytes() : 0L;
+            });
+            metrics.register(name(HeapFootprint.class, "shared-bytes"), (Gauge<Long>) () -> {
+                HeapFootprintReport last = report;
+                return last != null ? last.getSharedBytes() : 0L;
+            });
+        }
+    }
+
+    /**
+     * Creates a footprint which does not register any gauge.
+     */
+    public HeapFootprint(ConfigurableListableBeanFactory beanFactory, ObjectGraphSizer sizer, long refreshIntervalMillis) {
+        this(beanFactory, sizer, null, 0, refreshIntervalMillis);
+    }
+
+    /**
+     * Returns the last report without blocking, or null when none has been computed yet.
+     */
+    public HeapFootprintReport getLastReport() {
+        return report;
+    }
+
+    /**
+     * Returns the last report, computing it when none has been computed yet.
+     */
+    public HeapFootprintReport getReport() {
+        HeapFootprintReport last = report;
+        return last != null ? last : refresh();
+    }
+
+    /**
+     * Computes the report again and registers the gauges of the singletons entering the top retained sizes.
+     */
+    public synchronized HeapFootprintReport refresh() {
+        HeapFootprintReport computed = compute();
+        report = computed;
+        for (HeapFootprintReport.Entry entry : computed.getEntries().subList(0, Math.min(topBeans, computed.getEntries().size()))) {
+            String beanName = entry.getBeanName();
+            if (gauges.add(beanName)) {
+                metrics.register(name(HeapFootprint.class, "retained-bytes", beanName), (Gauge<Long>) () -> {
+                    HeapFootprintReport last = report;
+                    HeapFootprintReport.Entry current = last != null ? last.getEntry(beanName) : null;
+                    return current != null ? current.getRetainedBytes() : 0L;
+                });
+            }
+        }
+        return computed;
+    }
+
+    /**
+     * Computes the report on the executor right away, then every refresh interval.
+     */
+    public ScheduledFuture<?> scheduleRefresh(ScheduledExecutorService executor) {
+        return executor.scheduleWithFixedDelay(() -> {
+            try {
+                HeapFootprintReport computed = refresh();
+                LOG.debug("Heap footprint of " + computed.getEntries().size() + " singletons: " + computed.getRetainedBytes()
+                        + " bytes retained, " + computed.getSharedBytes() + " bytes shared, computed in "
+                        + computed.getDurationMillis() + " ms");
+            } catch (RuntimeException e) {
+                // Keep the refresh scheduled, the gauges read the previous report meanwhile
+                LOG.warn("Unable to compute the heap footprint", e);
+            }
+        }, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private HeapFootprintReport compute() {
+        long start = System.currentTimeMillis();
+        List<String> beanNames = new ArrayList<>();
+        List<Object> singletons = new ArrayList<>();
+        Map<Object, Boolean> roots = new IdentityHashMap<>();
+        for (String beanName : beanFactory.getSingletonNames()) {
+            Object singleton = beanFactory.getSingleton(beanName);
+            if (singleton != null) {
+                beanNames.add(beanName);
+                singletons.add(singleton);
+                roots.put(singleton, Boolean.TRUE);
+            }
+        }
+        for (BeanFactory parent = beanFactory.getParentBeanFactory(); parent instanceof ConfigurableBeanFactory;
+             parent = ((ConfigurableBeanFactory) parent).getParentBeanFactory()) {
+            ConfigurableBeanFactory ancestor = (ConfigurableBeanFactory) parent;
+            for (String beanName : ancestor.getSingletonNames()) {
+                Object singleton = ancestor.getSingleton(beanName);
+                if (singleton != null) roots.put(singleton, Boolean.TRUE);
+            }
+        }
+
+        int count = singletons.size();
+        long[] reachableBytes = new long[count];
+        Nodes nodes = new Nodes();
+        Deque<Object> pending = new ArrayDeque<>();
+        for (int i = 0; i < count; i++) {
+            pending.push(singletons.get(i));
+            while (!pending.isEmpty()) {
+                Object object = pending.pop();
+                int node = nodes.indexOf(object);
+                if (node < 0) {
+                    node = nodes.add(object, i, sizer.shallowSize(object));
+                } else if (nodes.visitors[node] == i) {
+                    continue;
+                } else {
+                    nodes.visitors[node] = i;
+                    nodes.owners[node] = SHARED;
+                }
+                reachableBytes[i] += nodes.sizes[node];
+                sizer.forEachReference(object, reference -> {
+                    if (!roots.containsKey(reference) && !isBoundary(reference)) {
+                        pending.push(reference);
+                    }
+                });
+            }
+        }
+
+        long[] retainedBytes = new long[count];
+        long[] retainedObjects = new long[count];
+        long sharedBytes = 0;
+        long sharedObjects = 0;
+        for (int node = 0; node < nodes.keys.length; node++) {
+            if (nodes.keys[node] == null) {
+                continue;
+            }
+            if (nodes.owners[node] == SHARED) {
+                sharedBytes += nodes.sizes[node];
+                sharedObjects++;
+            } else {
+                retainedBytes[nodes.owners[node]] += nodes.sizes[node];
+                retainedObjects[nodes.owners[node]]++;
+            }
+        }
+
+        List<HeapFootprintReport.Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Object singleton = singletons.get(i);
+            entries.add(new HeapFootprintReport.Entry(beanNames.get(i), singleton.getClass().getName(),
+                    sizer.shallowSize(singleton), retainedBytes[i], reachableBytes[i], retainedObjects[i]));
+        }
+        entries.sort(Comparator.comparingLong(HeapFootprintReport.Entry::getRetainedBytes).reversed());
+        return new HeapFootprintReport(entries, sharedBytes, sharedObjects, start, System.currentTimeMillis() - start);
+    }
+
+    private static boolean isBoundary(Object object) {
+        return object instanceof Class || object instanceof ClassLoader || object instanceof Thread
+                || object instanceof ThreadGroup || object instanceof Enum
+                || object instanceof BeanFactory || object instanceof ApplicationContext;
+    }
+
+    /**
+     * The objects reached by the walk, in an open addressing identity table whose parallel arrays hold their size, the
+     * singleton owning them, or {@link #SHARED}, and the last singleton reaching them, so that walking millions of
+     * objects does not allocate a node object for each of them.
+     */
+    private static class Nodes {
+        private Object[] keys = new Object[1024];
+        private long[] sizes = new long[1024];
+        private int[] owners = new int[1024];
+        private int[] visitors = new int[1024];
+        private int size;
+
+        int indexOf(Object object) {
+            for (int index = slot(object, keys.length); keys[index] != null; index = (index + 1) & (keys.length - 1)) {
+                if (keys[index] == object) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+
+        int add(Object object, int owner, long objectSize) {
+            if (++size * 3 > keys.length * 2) {
+                resize();
+            }
+            int index = slot(object, keys.length);
+            while (keys[index] != null) {
+                index = (index + 1) & (keys.length - 1);
+            }
+            keys[index] = object;
+            sizes[index] = objectSize;
+            owners[index] = owner;
+            visitors[index] = owner;
+            return index;
+        }
+
+        private void resize() {
+            Object[] oldKeys = keys;
+            long[] oldSizes = sizes;
+            int[] oldOwners = owners;
+            int[] oldVisitors = visitors;
+            int capacity = oldKeys.length * 2;
+            keys = new Object[capacity];
+            sizes = new long[capacity];
+            owners = new int[capacity];
+            visitors = new int[capacity];
+            for (int old = 0; old < oldKeys.length; old++) {
+                if (oldKeys[old] != null) {
+                    int index = slot(oldKeys[old], capacity);
+                    while (keys[index] != null) {
+                        index = (index + 1) & (capacity - 1);
+                    }
+                    keys[index] = oldKeys[old];
+                    sizes[index] = oldSizes[old];
+                    owners[index] = oldOwners[old];
+                    visitors[index] = oldVisitors[old];
+                }
+            }
+        }
+
+        private static int slot(Object object, int capacity) {
+            int hash = System.identityHashCode(object);
+            return (hash ^ (hash >>> 16)) * 0x9E3779B9 >>> 1 & (capacity - 1);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.bazaarvoice.dropwizard.spring.footprint;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The estimated heap footprint of the singletons of a Spring application context, sorted by decreasing retained size.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class HeapFootprintReport {
+
+    private final List<Entry> entries;
+    private final long sharedBytes;
+    private final long sharedObjects;
+    private final long timestamp;
+    private final long durationMillis;
+
+    HeapFootprintReport(List<Entry> entries, long sharedBytes, long sharedObjects, long timestamp, long durationMillis) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.sharedBytes = sharedBytes;
+        this.sharedObjects = sharedObjects;
+        this.timestamp = timestamp;
+        this.durationMillis = durationMillis;
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Entry getEntry(String beanName) {
+        for (Entry entry : entries) {
+            if (entry.getBeanName().equals(beanName)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public long getRetainedBytes() {
+        long retainedBytes = 0;
+        for (Entry entry : entries) {
+            retainedBytes += entry.getRetainedBytes();
+        }
+        return retainedBytes;
+    }
+
+    /**
+     * The size of the objects reachable from several singletons, which are not retained by any of them.
+     */
+    public long getSharedBytes() {
+        return sharedBytes;
+    }
+
+    public long getSharedObjects() {
+        return sharedObjects;
+    }
+
+    /**
+     * When the report was computed, in milliseconds since the epoch.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * The footprint of a singleton.
+     */
+    public static class Entry {
+        private final String beanName;
+        private final String className;
+        private final long shallowBytes;
+        private final long retainedBytes;
+        private final long reachableBytes;
+        private final long retainedObjects;
+
+        Entry(String beanName, String className, long shallowBytes, long retainedBytes, long reachableBytes, long retainedObjects) {
+            this.beanName = beanName;
+            this.className = className;
+            this.shallowBytes = shallowBytes;
+            this.retainedBytes = retainedBytes;
+            this.reachableBytes = reachableBytes;
+            this.retainedObjects = retainedObjects;
+        }
+
+        public String getBeanName() {
+            return beanName;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * The size of the singleton itself.
+         */
+        public long getShallowBytes() {
+            return shallowBytes;
+        }
+
+        /**
+         * The size of the objects only reachable from this singleton, which would be freed along with it.
+         */
+        public long getRetainedBytes() {
+            return retainedBytes;
+        }
+
+        /**
+         * The size of all the objects reachable from this singleton, including the ones shared with other singletons.
+         */
+        public long getReachableBytes() {
+            return reachableBytes;
+        }
+
+        public long getRetainedObjects() {
+            return retainedObjects;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%12d %12d %10d %8d  %s (%s)", retainedBytes, reachableBytes, shallowBytes,
+                    retainedObjects, beanName, className);
+        }
+    }
+}
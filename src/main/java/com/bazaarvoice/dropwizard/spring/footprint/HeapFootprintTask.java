@@ -0,0 +1,52 @@
+package com.bazaarvoice.dropwizard.spring.footprint;
+
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.primitives.Ints;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Admin task computing the {@link HeapFootprint} of the singletons again and printing it, largest retained size
+ * first.  The {@code limit} parameter caps the number of printed singletons (default 20); other values than positive
+ * numbers are rejected without walking the heap.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class HeapFootprintTask extends Task {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final HeapFootprint footprint;
+
+    public HeapFootprintTask(HeapFootprint footprint) {
+        super("heap-footprint");
+        this.footprint = footprint;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+        int limit = DEFAULT_LIMIT;
+        Collection<String> limits = parameters.get("limit");
+        if (!limits.isEmpty()) {
+            String value = limits.iterator().next();
+            Integer parsed = Ints.tryParse(value.trim());
+            if (parsed == null || parsed <= 0) {
+                output.println("The limit must be a positive number of singletons, not '" + value + "'");
+                return;
+            }
+            limit = parsed;
+        }
+
+        HeapFootprintReport report = footprint.refresh();
+        List<HeapFootprintReport.Entry> entries = report.getEntries();
+        output.println(String.format("%d singletons retain %d bytes, %d bytes in %d objects are shared (computed in %d ms)",
+                entries.size(), report.getRetainedBytes(), report.getSharedBytes(), report.getSharedObjects(),
+                report.getDurationMillis()));
+        output.println(String.format("%12s %12s %10s %8s  %s", "retained", "reachable", "shallow", "objects", "bean"));
+        for (HeapFootprintReport.Entry entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            output.println(entry);
+        }
+    }
+}
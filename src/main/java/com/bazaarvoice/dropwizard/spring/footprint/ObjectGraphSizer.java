@@ -0,0 +1,219 @@
+package com.bazaarvoice.dropwizard.spring.footprint;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Estimates the size of objects from their field layout, the way HotSpot lays them out: an object header, the fields
+ * and an 8 bytes alignment, with 4 bytes references when compressed oops are in use.
+ * <p/>
+ * The references of an object are read through reflection.  The fields of the JDK classes on Java 9 and later, which
+ * are not made accessible so that the JVM does not warn about illegal reflective accesses, and of the classes that cannot
+ * be made accessible, are not walked: their shallow size is still counted, maps and collections are walked through their
+ * public API with an estimate of their internal nodes, and strings count their characters.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ObjectGraphSizer {
+
+    private static final boolean MODULES = !System.getProperty("java.specification.version").startsWith("1.");
+
+    private final int objectHeaderBytes;
+    private final int arrayHeaderBytes;
+    private final int referenceBytes;
+    private final Map<Class<?>, Layout> layouts = new ConcurrentHashMap<>();
+
+    public ObjectGraphSizer() {
+        this(compressedOops());
+    }
+
+    ObjectGraphSizer(boolean compressedOops) {
+        this.objectHeaderBytes = compressedOops ? 12 : 16;
+        this.arrayHeaderBytes = compressedOops ? 16 : 24;
+        this.referenceBytes = compressedOops ? 4 : 8;
+    }
+
+    /**
+     * The estimated size of the object itself, without the objects it references, except the internal arrays and
+     * nodes of the maps, collections and strings whose fields cannot be walked.
+     */
+    public long shallowSize(Object object) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            return arraySize(type.getComponentType(), Array.getLength(object));
+        }
+        Layout layout = layout(type);
+        long size = layout.size;
+        if (layout.opaque) {
+            if (object instanceof String) {
+                size += stringValueSize((String) object);
+            } else if (object instanceof Map) {
+                int entries = ((Map<?, ?>) object).size();
+                size += arraySize(Object.class, tableCapacity(entries)) + entries * align(objectHeaderBytes + 4 + 3 * referenceBytes);
+            } else if (object instanceof Collection) {
+                size += arraySize(Object.class, ((Collection<?>) object).size());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Passes the objects referenced by the given object to the consumer.  Static fields and the referents of weak, soft
+     * and phantom references are left out.
+     */
+    public void forEachReference(Object object, Consumer<Object> consumer) {
+        Class<?> type = object.getClass();
+        if (type.isArray()) {
+            if (!type.getComponentType().isPrimitive()) {
+                for (Object element : (Object[]) object) {
+                    if (element != null) consumer.accept(element);
+                }
+            }
+            return;
+        }
+        Layout layout = layout(type);
+        for (Field field : layout.references) {
+            Object value;
+            try {
+                value = field.get(object);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if (value != null) consumer.accept(value);
+        }
+        if (layout.opaque) {
+            // The object is read while the application runs, a concurrent modification ends the walk of its elements
+            try {
+                if (object instanceof Map) {
+                    for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet()) {
+                        if (entry.getKey() != null) consumer.accept(entry.getKey());
+                        if (entry.getValue() != null) consumer.accept(entry.getValue());
+                    }
+                } else if (object instanceof Collection) {
+                    for (Object element : (Collection<?>) object) {
+                        if (element != null) consumer.accept(element);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Ignored, the estimate misses the remaining elements
+            }
+        }
+    }
+
+    private Layout layout(Class<?> type) {
+        Layout layout = layouts.get(type);
+        if (layout == null) {
+            layout = new Layout(type);
+            layouts.put(type, layout);
+        }
+        return layout;
+    }
+
+    private long arraySize(Class<?> componentType, int length) {
+        return align(arrayHeaderBytes + (long) length * fieldSize(componentType));
+    }
+
+    private long stringValueSize(String string) {
+        boolean latin1 = true;
+        for (int i = 0; i < string.length() && latin1; i++) {
+            latin1 = string.charAt(i) < 256;
+        }
+        return arraySize(latin1 ? byte.class : char.class, string.length());
+    }
+
+    private int fieldSize(Class<?> type) {
+        if (!type.isPrimitive()) return referenceBytes;
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static int tableCapacity(int entries) {
+        int capacity = 16;
+        while (capacity * 3 / 4 < entries && capacity > 0) {
+            capacity <<= 1;
+        }
+        return capacity > 0 ? capacity : Integer.MAX_VALUE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * Whether the class is loaded by the bootstrap or platform class loader, so belongs to a JDK module.
+     */
+    private static boolean isPlatformClass(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return true;
+        }
+        for (ClassLoader platform = ClassLoader.getSystemClassLoader().getParent(); platform != null; platform = platform.getParent()) {
+            if (platform == classLoader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean compressedOops() {
+        try {
+            HotSpotDiagnosticMXBean hotSpot = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return Boolean.parseBoolean(hotSpot.getVMOption("UseCompressedOops").getValue());
+        } catch (RuntimeException | LinkageError e) {
+            // Not a HotSpot JVM, compressed oops are used by default below 32 GB of heap
+            return Runtime.getRuntime().maxMemory() < 32L << 30;
+        }
+    }
+
+    /**
+     * The size and the readable reference fields of the instances of a class.
+     */
+    private class Layout {
+        private final long size;
+        private final Field[] references;
+        private final boolean opaque;
+
+        private Layout(Class<?> type) {
+            long fieldsSize = 0;
+            List<Field> references = new ArrayList<>();
+            boolean opaque = false;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    fieldsSize += fieldSize(field.getType());
+                    if (field.getType().isPrimitive() || current == Reference.class) {
+                        continue;
+                    }
+                    if (MODULES && isPlatformClass(current)) {
+                        opaque = true;
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        references.add(field);
+                    } catch (RuntimeException e) {
+                        // Java 9 and later refuse the access to the fields of the modules that are not open
+                        opaque = true;
+                    }
+                }
+            }
+            this.size = align(objectHeaderBytes + fieldsSize);
+            this.references = references.toArray(new Field[references.size()]);
+            this.opaque = opaque;
+        }
+    }
+}
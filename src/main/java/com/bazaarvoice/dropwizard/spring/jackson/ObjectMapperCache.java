@@ -0,0 +1,117 @@
+package com.bazaarvoice.dropwizard.spring.jackson;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.core.Response;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caches the {@link ObjectReader}s and {@link ObjectWriter}s of Dropwizard's {@link ObjectMapper} by type.
+ * <p/>
+ * Readers and writers created for a type eagerly resolve its root (de)serializer, which is also kept in the
+ * mapper's own caches, so warming up the entity types of the resources saves the introspection cost of the first
+ * requests as well as of every later {@code readerFor}/{@code writerFor} call made through this cache.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ObjectMapperCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ObjectMapperCache.class);
+
+    private final ObjectMapper mapper;
+    private final ConcurrentMap<JavaType, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<JavaType, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public ObjectMapperCache(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    public ObjectReader reader(Type type) {
+        return readers.computeIfAbsent(mapper.constructType(type), mapper::readerFor);
+    }
+
+    public ObjectWriter writer(Type type) {
+        return writers.computeIfAbsent(mapper.constructType(type), mapper::writerFor);
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Resolves the serializers of the return types and the deserializers of the entity parameter types of the
+     * resource methods (methods annotated with an HTTP method designator) of the resource class.
+     *
+     * @return the number of warmed up types
+     */
+    public int warmUp(Class<?> resourceClass) {
+        Set<Type> returnTypes = new LinkedHashSet<>();
+        Set<Type> entityTypes = new LinkedHashSet<>();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(resourceClass))) {
+            if (AnnotationUtils.findAnnotation(method, HttpMethod.class) == null) {
+                continue;
+            }
+            if (isSerializable(method.getReturnType())) {
+                returnTypes.add(method.getGenericReturnType());
+            }
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (isEntity(parameterAnnotations[i]) && isSerializable(method.getParameterTypes()[i])) {
+                    entityTypes.add(parameterTypes[i]);
+                }
+            }
+        }
+
+        int warmed = 0;
+        for (Type type : returnTypes) {
+            try {
+                writer(type);
+                warmed++;
+            } catch (RuntimeException e) {
+                LOG.debug("Unable to resolve serializer of " + type, e);
+            }
+        }
+        for (Type type : entityTypes) {
+            try {
+                reader(type);
+                warmed++;
+            } catch (RuntimeException e) {
+                LOG.debug("Unable to resolve deserializer of " + type, e);
+            }
+        }
+        return warmed;
+    }
+
+    private static boolean isSerializable(Class<?> type) {
+        return type != void.class && type != Void.class && type != Object.class && !type.isPrimitive()
+                && !Response.class.isAssignableFrom(type);
+    }
+
+    /**
+     * Parameters without any JAX-RS, Jersey or Dropwizard auth annotation receive the request entity.
+     */
+    private static boolean isEntity(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            String name = annotation.annotationType().getName();
+            if (name.startsWith("javax.ws.rs.") || name.startsWith("org.glassfish.jersey.") || name.startsWith("io.dropwizard.auth.")) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
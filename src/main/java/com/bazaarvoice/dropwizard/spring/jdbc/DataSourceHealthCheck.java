@@ -0,0 +1,31 @@
+package com.bazaarvoice.dropwizard.spring.jdbc;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+
+/**
+ * Checks that a connection can be acquired from the data source and is valid.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class DataSourceHealthCheck extends HealthCheck {
+
+    private final DataSource dataSource;
+    private final int validationTimeoutSeconds;
+
+    public DataSourceHealthCheck(DataSource dataSource, int validationTimeoutSeconds) {
+        this.dataSource = dataSource;
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    @Override
+    protected Result check() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            if (connection.isValid(validationTimeoutSeconds)) {
+                return Result.healthy();
+            }
+            return Result.unhealthy("Connection could not be validated within " + validationTimeoutSeconds + " seconds");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bazaarvoice.dropwizard.spring.jdbc;
+
+import com.codahale.metrics.MetricRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the {@link DataSource} beans with {@link InstrumentedDataSource}s.  Since the replacement only
+ * implements {@link DataSource}, the beans must be injected through that interface.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class DataSourceInstrumentingBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DataSourceInstrumentingBeanPostProcessor.class);
+
+    private final MetricRegistry metrics;
+    private final long slowStatementThresholdMs;
+
+    public DataSourceInstrumentingBeanPostProcessor(MetricRegistry metrics, long slowStatementThresholdMs) {
+        this.metrics = metrics;
+        this.slowStatementThresholdMs = slowStatementThresholdMs;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof DataSource) || bean instanceof InstrumentedDataSource) {
+            return bean;
+        }
+        LOG.info("Instrumenting dataSource : " + beanName);
+        return new InstrumentedDataSource((DataSource) bean, beanName, metrics, slowStatementThresholdMs);
+    }
+}
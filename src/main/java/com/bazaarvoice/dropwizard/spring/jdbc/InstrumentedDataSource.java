@@ -0,0 +1,220 @@
+package com.bazaarvoice.dropwizard.spring.jdbc;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * A {@link DataSource} recording connection acquire times, active connections, statement execution times and slow
+ * statements of the data source it wraps.  The idle connection count is also reported when the wrapped data source
+ * is a pool exposing it (through a {@code getNumIdle()} or {@code getIdle()} method).
+ */
+@SuppressWarnings ("WeakerAccess")
+public class InstrumentedDataSource implements DataSource {
+
+    private static final String[] IDLE_COUNT_METHODS = {"getNumIdle", "getIdle"};
+
+    private final DataSource target;
+    private final long slowStatementNanos;
+
+    private final Timer acquire;
+    private final Meter acquireFailures;
+    private final Counter active;
+    private final Timer statements;
+    private final Meter slowStatements;
+
+    /**
+     * @param target                   the data source to instrument
+     * @param name                     the name of the metrics, usually the name of the data source bean
+     * @param metrics                  the registry receiving the metrics
+     * @param slowStatementThresholdMs the execution time above which a statement is counted as slow
+     */
+    public InstrumentedDataSource(DataSource target, String name, MetricRegistry metrics, long slowStatementThresholdMs) {
+        this.target = target;
+        this.slowStatementNanos = TimeUnit.MILLISECONDS.toNanos(slowStatementThresholdMs);
+        this.acquire = metrics.timer(name(InstrumentedDataSource.class, name, "acquire"));
+        this.acquireFailures = metrics.meter(name(InstrumentedDataSource.class, name, "acquire-failures"));
+        this.active = metrics.counter(name(InstrumentedDataSource.class, name, "active"));
+        this.statements = metrics.timer(name(InstrumentedDataSource.class, name, "statements"));
+        this.slowStatements = metrics.meter(name(InstrumentedDataSource.class, name, "slow-statements"));
+
+        for (String methodName : IDLE_COUNT_METHODS) {
+            Method idleCount = ReflectionUtils.findMethod(target.getClass(), methodName);
+            if (idleCount != null && (idleCount.getReturnType() == int.class || idleCount.getReturnType() == long.class)) {
+                metrics.register(name(InstrumentedDataSource.class, name, "idle"),
+                        (Gauge<Number>) () -> (Number) ReflectionUtils.invokeMethod(idleCount, target));
+                break;
+            }
+        }
+    }
+
+    public DataSource getTarget() {
+        return target;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return instrument(() -> target.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return instrument(() -> target.getConnection(username, password));
+    }
+
+    private Connection instrument(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        Timer.Context context = acquire.time();
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            acquireFailures.mark();
+            throw e;
+        } finally {
+            context.stop();
+        }
+        active.inc();
+        return (Connection) Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return target.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        target.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        target.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return target.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return target.getParentLogger();
+    }
+
+    @Override
+    public <U> U unwrap(Class<U> iface) throws SQLException {
+        return iface.isInstance(this) ? iface.cast(this) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target.isWrapperFor(iface);
+    }
+
+    /**
+     * Invokes the method on the target, except for the identity and unwrapping methods, which are answered on behalf of
+     * the proxy so that it is neither equal to nor unwrapped into the object it instruments.
+     */
+    private static Object invoke(Object proxy, Method method, Object target, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    /**
+     * Counts the connection as active until it is closed and instruments the statements it creates.
+     */
+    private class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String methodName = method.getName();
+            if (methodName.equals("close") && closed.compareAndSet(false, true)) {
+                active.dec();
+            }
+            Object result = InstrumentedDataSource.invoke(proxy, method, connection, args);
+            if (result instanceof Statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(),
+                        new Class<?>[] {method.getReturnType()}, new StatementHandler((Statement) result));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times the executions of the statement.
+     */
+    private class StatementHandler implements InvocationHandler {
+        private final Statement statement;
+
+        private StatementHandler(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (!method.getName().startsWith("execute")) {
+                return InstrumentedDataSource.invoke(proxy, method, statement, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return InstrumentedDataSource.invoke(proxy, method, statement, args);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                statements.update(elapsed, TimeUnit.NANOSECONDS);
+                if (elapsed > slowStatementNanos) {
+                    slowStatements.mark();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Processes the requests of the application context on the given executor instead of Jetty's thread pool.
+ * <p/>
+ * Jetty's acceptor and selector threads keep running on its {@code QueuedThreadPool}: each request is put in
+ * asynchronous mode and handed over to the executor, which runs the rest of the filter chain, Jersey included, and
+ * completes the request.  The chain runs in the scope of the servlet context handler and with the context class loader
+ * of the container thread, and the request keeps the session and user principal it had on that thread.  Jersey resources suspending their response (with {@code @Suspended AsyncResponse}) take over
+ * that asynchronous context, so they are completed by Jersey instead.  Requests rejected by the executor are answered
+ * with a {@code 503 Service Unavailable}.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class ApplicationExecutorFilter implements Filter {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ApplicationExecutorFilter.class);
+
+    private final Executor executor;
+
+    public ApplicationExecutorFilter(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (request.isAsyncStarted() || !(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(0);
+        DispatchedRequest dispatched = new DispatchedRequest((HttpServletRequest) request, asyncContext);
+        ContextHandler.Context context = ContextHandler.getCurrentContext();
+        ContextHandler contextHandler = context == null ? null : context.getContextHandler();
+        Request baseRequest = Request.getBaseRequest(request);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        try {
+            executor.execute(() -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader previous = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try {
+                    if (contextHandler == null) {
+                        process(dispatched, response, chain);
+                    } else {
+                        contextHandler.handle(baseRequest, () -> process(dispatched, response, chain));
+                    }
+                } finally {
+                    thread.setContextClassLoader(previous);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Rejected request " + dispatched.getRequestURI() + " : " + e.getMessage());
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            asyncContext.complete();
+        }
+    }
+
+    private void process(DispatchedRequest request, ServletResponse response, FilterChain chain) {
+        try {
+            chain.doFilter(request, response);
+        } catch (Exception e) {
+            LOG.error("Error processing request " + request.getRequestURI(), e);
+            if (!response.isCommitted()) {
+                try {
+                    ((HttpServletResponse) response).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } catch (IOException ignored) {
+                    // the client went away
+                }
+            }
+        } finally {
+            if (!request.suspended) {
+                request.asyncContext.complete();
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+    }
+
+    /**
+     * A request whose asynchronous context, already started by the filter, is handed to the first component asking for it.
+     * Its paths, session and authentication are captured before it leaves the container thread, since the servlet,
+     * session and security handlers reset them once the filter returns.
+     */
+    private static class DispatchedRequest extends HttpServletRequestWrapper {
+        private final AsyncContext asyncContext;
+        private final ServletContext servletContext;
+        private final String contextPath;
+        private final String servletPath;
+        private final String pathInfo;
+        private final HttpSession session;
+        private final Principal userPrincipal;
+        private final String remoteUser;
+        private final String authType;
+        private volatile boolean suspended;
+
+        private DispatchedRequest(HttpServletRequest request, AsyncContext asyncContext) {
+            super(request);
+            this.asyncContext = asyncContext;
+            this.servletContext = request.getServletContext();
+            this.contextPath = request.getContextPath();
+            this.servletPath = request.getServletPath();
+            this.pathInfo = request.getPathInfo();
+            this.session = request.getSession(false);
+            this.userPrincipal = request.getUserPrincipal();
+            this.remoteUser = request.getRemoteUser();
+            this.authType = request.getAuthType();
+        }
+
+        @Override
+        public ServletContext getServletContext() {
+            return servletContext;
+        }
+
+        @Override
+        public String getContextPath() {
+            return contextPath;
+        }
+
+        @Override
+        public String getServletPath() {
+            return servletPath;
+        }
+
+        @Override
+        public String getPathInfo() {
+            return pathInfo;
+        }
+
+        @Override
+        public String getPathTranslated() {
+            return pathInfo == null ? null : servletContext.getRealPath(pathInfo);
+        }
+
+        @Override
+        public HttpSession getSession(boolean create) {
+            return session != null || !create ? session : super.getSession(true);
+        }
+
+        @Override
+        public HttpSession getSession() {
+            return getSession(true);
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return userPrincipal;
+        }
+
+        @Override
+        public String getRemoteUser() {
+            return remoteUser;
+        }
+
+        @Override
+        public String getAuthType() {
+            return authType;
+        }
+
+        @Override
+        public AsyncContext startAsync() {
+            suspended = true;
+            return asyncContext;
+        }
+
+        @Override
+        public AsyncContext startAsync(ServletRequest servletRequest, ServletResponse servletResponse) {
+            return startAsync();
+        }
+
+        @Override
+        public boolean isAsyncStarted() {
+            return suspended;
+        }
+
+        @Override
+        public boolean isAsyncSupported() {
+            return true;
+        }
+
+        @Override
+        public AsyncContext getAsyncContext() {
+            if (!suspended) {
+                throw new IllegalStateException("The request is not in asynchronous mode");
+            }
+            return asyncContext;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Virtual threads, available from Java 21.  This is the implementation used on older Java versions, where they are not
+ * supported; the multi-release jar holds the Java 21 one under {@code META-INF/versions/21}.
+ */
+@SuppressWarnings ("WeakerAccess")
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Returns an executor starting a new virtual thread per task, named with the given prefix.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+
+    /**
+     * Returns a {@link Managed} registering and updating the pinning and carrier thread metrics of virtual threads.
+     */
+    public static Managed monitor(MetricRegistry metrics) {
+        throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+    }
+}
@@ -0,0 +1,128 @@
+package com.bazaarvoice.dropwizard.spring.parent;
+
+import com.bazaarvoice.dropwizard.spring.footprint.HeapFootprint;
+import com.bazaarvoice.dropwizard.spring.footprint.ObjectGraphSizer;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+/**
+ * A Spring application context shared, as their parent, by the contexts of several Dropwizard applications running in
+ * the same JVM, so that the infrastructure beans it defines (connection pools, caches, HTTP clients...) are only
+ * created once.
+ * <p/>
+ * Shared contexts are registered JVM-wide by name and reference counted: the first application {@link #acquire
+ * acquiring} a name creates and refreshes its context, the following ones reuse it, and the context is closed once the
+ * last of them has {@link #release() released} it.  The beans of a shared context are visible from the child contexts,
+ * but since the child contexts only look up their own beans, each application only registers its own resources, tasks,
+ * health checks and managed objects.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class SharedParentContext {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedParentContext.class);
+    private static final Map<String, SharedParentContext> CONTEXTS = new HashMap<>();
+
+    private final String name;
+    private final ConfigurableApplicationContext context;
+    private HeapFootprint footprint;
+    private ScheduledExecutorService footprintExecutor;
+    private int references;
+
+    private SharedParentContext(String name, ConfigurableApplicationContext context) {
+        this.name = name;
+        this.context = context;
+    }
+
+    /**
+     * Returns the shared context registered under the given name, creating it with the factory, and refreshing it if
+     * needed, when there is none.  The created context is closed if it fails to refresh.  Every call must be balanced
+     * by a call to {@link #release()}.
+     */
+    public static SharedParentContext acquire(String name, Supplier<? extends ConfigurableApplicationContext> factory) {
+        synchronized (CONTEXTS) {
+            SharedParentContext shared = CONTEXTS.get(name);
+            if (shared == null) {
+                ConfigurableApplicationContext context = factory.get();
+                try {
+                    if (!context.isActive()) context.refresh();
+                } catch (Throwable e) {
+                    context.close();
+                    throw e;
+                }
+                shared = new SharedParentContext(name, context);
+                CONTEXTS.put(name, shared);
+                LOG.info("Created shared parent context '" + name + "' with " + context.getBeanDefinitionCount() + " beans");
+            }
+            shared.references++;
+            return shared;
+        }
+    }
+
+    /**
+     * Releases this shared context, which is closed when no application uses it anymore.
+     */
+    public void release() {
+        synchronized (CONTEXTS) {
+            Preconditions.checkState(references > 0, "The shared parent context '" + name + "' is already released");
+            if (--references > 0) {
+                return;
+            }
+            CONTEXTS.remove(name, this);
+        }
+        synchronized (this) {
+            if (footprintExecutor != null) footprintExecutor.shutdownNow();
+        }
+        context.close();
+        LOG.info("Closed shared parent context '" + name + "'");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    /**
+     * The number of applications using this shared context.
+     */
+    public int getReferences() {
+        synchronized (CONTEXTS) {
+            return references;
+        }
+    }
+
+    /**
+     * Returns the heap footprint of the singletons of this shared context, computed in the background every refresh
+     * interval from the first call on.  The following calls return the same footprint, whatever their interval.
+     */
+    public synchronized HeapFootprint scheduleFootprint(long refreshIntervalMillis) {
+        if (footprint == null) {
+            footprint = new HeapFootprint(context.getBeanFactory(), new ObjectGraphSizer(), refreshIntervalMillis);
+            footprintExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "shared-parent-footprint-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            footprint.scheduleRefresh(footprintExecutor);
+        }
+        return footprint;
+    }
+
+    /**
+     * The heap footprint of the singletons of this shared context, or null when none is {@link #scheduleFootprint
+     * scheduled}.
+     */
+    public synchronized HeapFootprint getFootprint() {
+        return footprint;
+    }
+}
@@ -0,0 +1,54 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timed call recorded by the {@link Tracer}: either the root span of a Jersey request (depth 0) or a Spring bean
+ * method called while handling it.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class Span {
+
+    private final long traceId;
+    private final int depth;
+    private final String name;
+    private final long startNanos;
+    private final long durationNanos;
+
+    public Span(long traceId, int depth, String name, long startNanos, long durationNanos) {
+        this.traceId = traceId;
+        this.depth = depth;
+        this.name = name;
+        this.startNanos = startNanos;
+        this.durationNanos = durationNanos;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public boolean isRoot() {
+        return depth == 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %.3f ms", name, durationNanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
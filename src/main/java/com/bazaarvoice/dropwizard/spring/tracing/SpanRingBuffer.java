@@ -0,0 +1,97 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A preallocated, lock-free ring buffer of the most recent {@link Span}s.
+ * <p/>
+ * Writers claim a sequence number with a single atomic increment and overwrite the oldest span in place, so
+ * recording does not allocate.  Every slot carries the sequence number of the span it holds, which a writer swaps for a
+ * marker while it writes the slot: writers of sequences wrapping onto the same slot take turns, and the one lapped by a
+ * newer span drops its own.  Readers skip slots that are being written or were overwritten while they were read.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class SpanRingBuffer {
+
+    private static final long EMPTY = -2;
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final AtomicLong cursor = new AtomicLong();
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray traceIds;
+    private final AtomicLongArray depths;
+    private final AtomicLongArray startNanos;
+    private final AtomicLongArray durationNanos;
+    private final AtomicReferenceArray<String> names;
+
+    /**
+     * @param capacity the number of spans kept, rounded up to a power of two
+     */
+    public SpanRingBuffer(int capacity) {
+        Preconditions.checkArgument(capacity > 0 && capacity <= 1 << 30, "capacity must be between 1 and 2^30");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.traceIds = new AtomicLongArray(size);
+        this.depths = new AtomicLongArray(size);
+        this.startNanos = new AtomicLongArray(size);
+        this.durationNanos = new AtomicLongArray(size);
+        this.names = new AtomicReferenceArray<>(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, EMPTY);
+        }
+    }
+
+    public void record(long traceId, int depth, String name, long start, long duration) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        for (;;) {
+            long held = sequences.get(slot);
+            if (held >= sequence) {
+                return;
+            }
+            if (held != WRITING && sequences.compareAndSet(slot, held, WRITING)) {
+                break;
+            }
+            Thread.yield();
+        }
+        traceIds.set(slot, traceId);
+        depths.set(slot, depth);
+        startNanos.set(slot, start);
+        durationNanos.set(slot, duration);
+        names.set(slot, name);
+        sequences.set(slot, sequence);
+    }
+
+    /**
+     * Copies the spans currently held by the buffer, oldest first.
+     */
+    public List<Span> snapshot() {
+        long end = cursor.get();
+        long begin = Math.max(0, end - (mask + 1));
+        List<Span> spans = new ArrayList<>((int) (end - begin));
+        for (long sequence = begin; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask);
+            if (sequences.get(slot) != sequence) {
+                continue;
+            }
+            Span span = new Span(traceIds.get(slot), (int) depths.get(slot), names.get(slot),
+                    startNanos.get(slot), durationNanos.get(slot));
+            if (sequences.get(slot) == sequence) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
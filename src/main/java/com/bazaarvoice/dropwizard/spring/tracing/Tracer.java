@@ -0,0 +1,146 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Samples Jersey requests and records the spans of the sampled ones into a {@link SpanRingBuffer}.
+ * <p/>
+ * Requests that are not sampled only cost a random draw, without any allocation by the tracer.  The trace of a
+ * sampled request is owned by the caller of {@link #startTrace()}, which may end it from any thread, while spans are
+ * recorded for the calls made on the thread the trace is bound to.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class Tracer {
+
+    private final double sampleRate;
+    private final SpanRingBuffer buffer;
+    private final AtomicLong traceIds = new AtomicLong();
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+    private final Timer sampledRequests;
+
+    public Tracer(double sampleRate, int bufferSize, MetricRegistry metrics) {
+        Preconditions.checkArgument(sampleRate >= 0 && sampleRate <= 1, "sampleRate must be between 0 and 1");
+        this.sampleRate = sampleRate;
+        this.buffer = new SpanRingBuffer(bufferSize);
+        this.sampledRequests = metrics.timer(name(Tracer.class, "sampled-requests"));
+        metrics.register(name(Tracer.class, "slowest-trace"), (Gauge<String>) () -> {
+            Span slowest = slowestTrace();
+            return slowest == null ? null : slowest.toString();
+        });
+        metrics.register(name(Tracer.class, "slowest-trace-millis"), (Gauge<Double>) () -> {
+            Span slowest = slowestTrace();
+            return slowest == null ? 0.0 : slowest.getDurationNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        });
+    }
+
+    /**
+     * Starts a trace bound to the current thread, in place of any trace bound to it, if the request is sampled.
+     *
+     * @return the trace, which should be named, or null if the request is not sampled
+     */
+    public Trace startTrace() {
+        if (sampleRate == 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            current.remove();
+            return null;
+        }
+        Trace trace = new Trace(traceIds.incrementAndGet(), System.nanoTime());
+        current.set(trace);
+        return trace;
+    }
+
+    /**
+     * Records the root span of the trace and unbinds it from the current thread.  Ending a trace more than once has no
+     * effect.
+     */
+    public void endTrace(Trace trace) {
+        unbind(trace);
+        if (trace.ended.compareAndSet(false, true)) {
+            long duration = System.nanoTime() - trace.startNanos;
+            buffer.record(trace.traceId, 0, trace.name, trace.startNanos, duration);
+            sampledRequests.update(duration, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Unbinds the trace from the current thread, if it is bound to it, so that the calls made on this thread are no
+     * longer recorded.
+     */
+    public void unbind(Trace trace) {
+        if (current.get() == trace) {
+            current.remove();
+        }
+    }
+
+    /**
+     * Whether the current thread is handling a sampled request.
+     */
+    public boolean isSampled() {
+        return current.get() != null;
+    }
+
+    /**
+     * Opens a span of the trace bound to the current thread.
+     *
+     * @return the depth of the span, or 0 if the request is not sampled
+     */
+    int enterSpan() {
+        Trace trace = current.get();
+        return trace == null ? 0 : ++trace.depth;
+    }
+
+    /**
+     * Records the span opened by {@link #enterSpan()}.
+     */
+    void exitSpan(int depth, String name, long startNanos) {
+        Trace trace = current.get();
+        if (trace == null) {
+            return;
+        }
+        trace.depth = depth - 1;
+        buffer.record(trace.traceId, depth, name, startNanos, System.nanoTime() - startNanos);
+    }
+
+    public SpanRingBuffer getBuffer() {
+        return buffer;
+    }
+
+    private Span slowestTrace() {
+        Span slowest = null;
+        for (Span span : buffer.snapshot()) {
+            if (span.isRoot() && (slowest == null || span.getDurationNanos() > slowest.getDurationNanos())) {
+                slowest = span;
+            }
+        }
+        return slowest;
+    }
+
+    /**
+     * A sampled request.
+     */
+    public static class Trace {
+        private final long traceId;
+        private final long startNanos;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile String name;
+        private int depth;
+
+        private Trace(long traceId, long startNanos) {
+            this.traceId = traceId;
+            this.startNanos = startNanos;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.servlets.tasks.Task;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin task printing the sampled traces still held by the {@link Tracer}'s buffer, most recent first, or slowest
+ * first with {@code sort=slowest}.  The {@code limit} parameter caps the number of printed traces (default 20).
+ */
+@SuppressWarnings ("WeakerAccess")
+public class TracesTask extends Task {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final Tracer tracer;
+
+    public TracesTask(Tracer tracer) {
+        super("traces");
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) throws Exception {
+        int limit = DEFAULT_LIMIT;
+        Collection<String> limits = parameters.get("limit");
+        if (!limits.isEmpty()) {
+            limit = Integer.parseInt(limits.iterator().next());
+        }
+        boolean slowest = parameters.get("sort").contains("slowest");
+
+        // Spans are recorded when they end, so the root span comes last
+        Map<Long, List<Span>> spansByTrace = new LinkedHashMap<>();
+        List<Span> roots = new ArrayList<>();
+        for (Span span : tracer.getBuffer().snapshot()) {
+            spansByTrace.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span);
+            if (span.isRoot()) {
+                roots.add(span);
+            }
+        }
+        roots.sort(slowest
+                ? Comparator.comparingLong(Span::getDurationNanos).reversed()
+                : Comparator.comparingLong(Span::getStartNanos).reversed());
+
+        for (Span root : roots.subList(0, Math.min(limit, roots.size()))) {
+            output.println("trace " + root.getTraceId() + " : " + root);
+            List<Span> spans = spansByTrace.get(root.getTraceId());
+            spans.sort(Comparator.comparingLong(Span::getStartNanos));
+            for (Span span : spans) {
+                if (!span.isRoot()) {
+                    output.println(Strings.repeat("  ", span.getDepth()) + span);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.SpringProxy;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Dispatcher;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.objenesis.ObjenesisException;
+import org.springframework.objenesis.SpringObjenesis;
+
+import javax.ws.rs.Path;
+import javax.ws.rs.ext.Provider;
+import java.lang.reflect.Modifier;
+
+/**
+ * Wraps the Spring beans of the traced packages in proxies recording their method calls with the {@link Tracer}.
+ * <p/>
+ * Proxies subclass the bean class, so the beans can still be injected and looked up by their concrete type; final
+ * and private classes are left alone since they cannot be subclassed.  Resources and providers are left alone since Jersey reads
+ * their annotations, and so are configuration classes.
+ * <p/>
+ * The proxies are plain CGLIB subclasses rather than Spring AOP proxies, whose calls all build a method invocation
+ * before reaching any advice: a public method called outside of a sampled request only costs the argument array and
+ * the sampling check.  The other methods are dispatched to the bean untraced.  Beans that already are Spring AOP
+ * proxies get the tracing advice added to their chain instead.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class TracingBeanPostProcessor implements BeanPostProcessor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TracingBeanPostProcessor.class);
+
+    private static final int TRACED = 0;
+    private static final int DISPATCHED = 1;
+    private static final int NOT_OVERRIDDEN = 2;
+
+    private static final CallbackFilter CALLBACKS = method -> {
+        if (method.getName().equals("finalize") && method.getParameterCount() == 0) {
+            return NOT_OVERRIDDEN;
+        }
+        return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class ? TRACED : DISPATCHED;
+    };
+
+    private static final SpringObjenesis OBJENESIS = new SpringObjenesis();
+
+    private final Tracer tracer;
+    private final String[] basePackages;
+
+    public TracingBeanPostProcessor(Tracer tracer, String... basePackages) {
+        this.tracer = tracer;
+        this.basePackages = basePackages;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> beanClass = AopUtils.getTargetClass(bean);
+        if (!isTraced(beanClass)) {
+            return bean;
+        }
+        if (AopUtils.isAopProxy(bean)) {
+            if (!(bean instanceof Advised) || ((Advised) bean).isFrozen()) {
+                LOG.warn("Not tracing opaque or frozen proxy bean : " + beanName);
+                return bean;
+            }
+            ((Advised) bean).addAdvice(new TracingInterceptor(tracer, beanName, null));
+            LOG.info("Tracing bean : " + beanName);
+            return bean;
+        }
+
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(beanClass);
+        enhancer.setInterfaces(new Class<?>[] {SpringProxy.class});
+        enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+        enhancer.setClassLoader(beanClass.getClassLoader());
+        enhancer.setCallbackFilter(CALLBACKS);
+        enhancer.setCallbackTypes(new Class<?>[] {TracingInterceptor.class, Dispatcher.class, NoOp.class});
+        Factory proxy;
+        try {
+            // Instantiated without calling the constructor of the bean class, as Spring AOP does
+            proxy = (Factory) OBJENESIS.newInstance(enhancer.createClass(), true);
+        } catch (ObjenesisException e) {
+            LOG.warn("Not tracing bean : " + beanName + ", its proxy could not be instantiated", e);
+            return bean;
+        }
+        proxy.setCallbacks(new Callback[] {new TracingInterceptor(tracer, beanName, bean), (Dispatcher) () -> bean, NoOp.INSTANCE});
+        LOG.info("Tracing bean : " + beanName);
+        return proxy;
+    }
+
+    private boolean isTraced(Class<?> beanClass) {
+        if (Modifier.isFinal(beanClass.getModifiers()) || Modifier.isPrivate(beanClass.getModifiers())
+                || AnnotationUtils.findAnnotation(beanClass, Path.class) != null
+                || AnnotationUtils.findAnnotation(beanClass, Provider.class) != null
+                || AnnotationUtils.findAnnotation(beanClass, Configuration.class) != null) {
+            return false;
+        }
+        String className = beanClass.getName();
+        for (String basePackage : basePackages) {
+            if (className.startsWith(basePackage + ".")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
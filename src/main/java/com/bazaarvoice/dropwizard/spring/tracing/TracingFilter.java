@@ -0,0 +1,62 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+
+/**
+ * Starts a {@link Tracer} trace when a Jersey request is sampled and records it once the response is produced.
+ * <p/>
+ * The trace is kept in a request property, so the response of a suspended request ends it on whichever thread resumes
+ * it, and it is unbound from the request thread as soon as the resource method returns.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class TracingFilter implements ContainerRequestFilter, ContainerResponseFilter, ApplicationEventListener {
+
+    static final String TRACE_PROPERTY = Tracer.Trace.class.getName();
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        Tracer.Trace trace = tracer.startTrace();
+        if (trace != null) {
+            trace.setName(request.getMethod() + " /" + request.getUriInfo().getPath());
+            request.setProperty(TRACE_PROPERTY, trace);
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        Object trace = request.getProperty(TRACE_PROPERTY);
+        if (trace instanceof Tracer.Trace) {
+            tracer.endTrace((Tracer.Trace) trace);
+        }
+    }
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return event -> {
+            if (event.getType() == RequestEvent.Type.RESOURCE_METHOD_FINISHED) {
+                Object trace = event.getContainerRequest().getProperty(TRACE_PROPERTY);
+                if (trace instanceof Tracer.Trace) {
+                    tracer.unbind((Tracer.Trace) trace);
+                }
+            }
+        };
+    }
+}
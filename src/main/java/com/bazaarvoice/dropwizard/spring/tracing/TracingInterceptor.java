@@ -0,0 +1,69 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Records the method calls of a Spring bean as spans of the sampled traces.
+ * <p/>
+ * As the callback of a tracing proxy, calls of requests that are not sampled go straight to the target bean, without
+ * building a method invocation.  As an advice, it is added to the chain of beans that already are Spring AOP proxies.
+ */
+class TracingInterceptor implements org.springframework.cglib.proxy.MethodInterceptor,
+        org.aopalliance.intercept.MethodInterceptor {
+
+    private final Tracer tracer;
+    private final String beanName;
+    private final Object target;
+    private final ConcurrentMap<Method, String> spanNames = new ConcurrentHashMap<>();
+
+    /**
+     * @param target the bean called by the proxy, or null if used as an advice
+     */
+    TracingInterceptor(Tracer tracer, String beanName, Object target) {
+        this.tracer = tracer;
+        this.beanName = beanName;
+        this.target = target;
+    }
+
+    @Override
+    public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+        int depth = tracer.enterSpan();
+        if (depth == 0) {
+            return methodProxy.invoke(target, args);
+        }
+        long start = System.nanoTime();
+        try {
+            return methodProxy.invoke(target, args);
+        } finally {
+            tracer.exitSpan(depth, spanName(method), start);
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int depth = tracer.enterSpan();
+        if (depth == 0) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            tracer.exitSpan(depth, spanName(invocation.getMethod()), start);
+        }
+    }
+
+    private String spanName(Method method) {
+        String name = spanNames.get(method);
+        if (name == null) {
+            name = beanName + "." + method.getName();
+            spanNames.putIfAbsent(method, name);
+        }
+        return name;
+    }
+}
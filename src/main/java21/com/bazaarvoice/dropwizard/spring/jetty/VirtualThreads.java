@@ -0,0 +1,99 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.codahale.metrics.Timer;
+import io.dropwizard.lifecycle.Managed;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+/**
+ * Virtual threads, the implementation used on Java 21 and later.
+ * <p/>
+ * Pinning (a virtual thread blocking while holding a monitor or running native code, so its carrier thread cannot run
+ * other virtual threads) is recorded from the {@code jdk.VirtualThreadPinned} flight recorder event.  The carrier
+ * threads belong to a scheduler the JDK does not expose: their gauges are only registered when the JVM is launched with
+ * {@code --add-opens java.base/java.lang=ALL-UNNAMED}.
+ */
+@SuppressWarnings ("WeakerAccess")
+public final class VirtualThreads {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreads.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Returns an executor starting a new virtual thread per task, named with the given prefix.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(namePrefix, 0).factory());
+    }
+
+    /**
+     * Returns a {@link Managed} registering and updating the pinning and carrier thread metrics of virtual threads.
+     */
+    public static Managed monitor(MetricRegistry metrics) {
+        Timer pinned = metrics.timer(name(VirtualThreads.class, "pinned"));
+        ForkJoinPool scheduler = scheduler();
+        if (scheduler != null) {
+            metrics.register(name(VirtualThreads.class, "carrier-parallelism"), (Gauge<Integer>) scheduler::getParallelism);
+            metrics.register(name(VirtualThreads.class, "carrier-pool-size"), (Gauge<Integer>) scheduler::getPoolSize);
+            metrics.register(name(VirtualThreads.class, "carrier-queued-tasks"), (Gauge<Long>) scheduler::getQueuedTaskCount);
+            metrics.register(name(VirtualThreads.class, "carrier-utilization"), new RatioGauge() {
+                @Override
+                protected Ratio getRatio() {
+                    return Ratio.of(scheduler.getActiveThreadCount(), scheduler.getParallelism());
+                }
+            });
+        }
+
+        return new Managed() {
+            private RecordingStream stream;
+
+            @Override
+            public void start() {
+                stream = new RecordingStream();
+                stream.enable(PINNED_EVENT).withoutThreshold().withStackTrace();
+                stream.onEvent(PINNED_EVENT, event -> {
+                    pinned.update(event.getDuration().toNanos(), TimeUnit.NANOSECONDS);
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Virtual thread pinned for " + event.getDuration().toMillis() + " ms at " + event.getStackTrace());
+                    }
+                });
+                stream.startAsync();
+            }
+
+            @Override
+            public void stop() {
+                stream.close();
+            }
+        };
+    }
+
+    private static ForkJoinPool scheduler() {
+        try {
+            Field field = Class.forName("java.lang.VirtualThread").getDeclaredField("DEFAULT_SCHEDULER");
+            field.setAccessible(true);
+            return (ForkJoinPool) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.info("Carrier thread metrics are not available, launch the JVM with --add-opens java.base/java.lang=ALL-UNNAMED to register them");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.collect.ImmutableList;
+import hello.config.HelloAppConfiguration;
+import io.dropwizard.Application;
+import io.dropwizard.request.logging.LogbackAccessRequestLogFactory;
+import io.dropwizard.server.DefaultServerFactory;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of a resource waiting for a Spring service completing its {@link CompletableFuture}s after
+ * {@value #SERVICE_MILLIS} ms, either blocking a server thread on {@code get()} or returning the future as enabled by
+ * {@code SpringBundle.enableAsyncResources(true)}, with the same {@code QueuedThreadPool} capped at
+ * {@value #MAX_THREADS} threads.
+ */
+public class AsyncResourceBenchmark {
+
+    private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
+    private static final int MAX_THREADS = 64;
+    private static final int CLIENTS = 256;
+    private static final long SERVICE_MILLIS = 100;
+    private static final long WARMUP_SECONDS = 3;
+    private static final long MEASURE_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        // Keep a connection per client alive instead of the 5 cached by default
+        System.setProperty("http.maxConnections", String.valueOf(CLIENTS));
+
+        BenchmarkApp app = new BenchmarkApp();
+        app.run("server", CONFIGURATION_FILE);
+        try {
+            report("blocking", new URL("http://localhost:" + app.port() + "/greeting/blocking"));
+            report("CompletableFuture", new URL("http://localhost:" + app.port() + "/greeting/async"));
+        } finally {
+            app.server.stop();
+        }
+    }
+
+    private static void report(String name, URL url) throws Exception {
+        load(url, WARMUP_SECONDS);
+        Histogram latencies = load(url, MEASURE_SECONDS);
+        Snapshot snapshot = latencies.getSnapshot();
+        System.out.printf("%-20s %,10.0f req/s   p50 %6.1f ms   p99 %6.1f ms%n", name,
+                latencies.getCount() / (double) MEASURE_SECONDS, snapshot.getMedian() / 1e6, snapshot.get99thPercentile() / 1e6);
+    }
+
+    private static Histogram load(URL url, long seconds) throws Exception {
+        Histogram latencies = new Histogram(new UniformReservoir());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                byte[] buffer = new byte[1024];
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                    try (InputStream body = connection.getInputStream()) {
+                        while (body.read(buffer) >= 0) {
+                            // drain the response to reuse the connection
+                        }
+                    }
+                    latencies.update(System.nanoTime() - start);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+        return latencies;
+    }
+
+    public static class GreetingService {
+
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        public CompletableFuture<String> greet() {
+            CompletableFuture<String> greeting = new CompletableFuture<>();
+            scheduler.schedule(() -> greeting.complete("hello"), SERVICE_MILLIS, TimeUnit.MILLISECONDS);
+            return greeting;
+        }
+    }
+
+    @Path("/greeting")
+    public static class GreetingResource {
+
+        @Autowired
+        private GreetingService service;
+
+        @GET
+        @Path("/blocking")
+        public String blocking() throws InterruptedException, ExecutionException {
+            return service.greet().get();
+        }
+
+        @GET
+        @Path("/async")
+        @AsyncTimeout(5000)
+        public CompletableFuture<String> async() {
+            return service.greet();
+        }
+    }
+
+    @Configuration
+    public static class BenchmarkConfiguration {
+
+        @Bean
+        public GreetingService greetingService() {
+            return new GreetingService();
+        }
+
+        @Bean
+        public GreetingResource greetingResource() {
+            return new GreetingResource();
+        }
+    }
+
+    private static class BenchmarkApp extends Application<HelloAppConfiguration> {
+
+        private volatile Server server;
+
+        @Override
+        public void initialize(Bootstrap<HelloAppConfiguration> bootstrap) {
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.register(BenchmarkConfiguration.class);
+            bootstrap.addBundle(new SpringBundle<>(context).enableAsyncResources(true));
+        }
+
+        @Override
+        public void run(HelloAppConfiguration configuration, Environment environment) {
+            DefaultServerFactory serverFactory = (DefaultServerFactory) configuration.getServerFactory();
+            serverFactory.setMaxThreads(MAX_THREADS);
+            LogbackAccessRequestLogFactory requestLog = new LogbackAccessRequestLogFactory();
+            requestLog.setAppenders(ImmutableList.of());
+            serverFactory.setRequestLogFactory(requestLog);
+            environment.lifecycle().addServerLifecycleListener(server -> this.server = server);
+        }
+
+        private int port() {
+            return ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.jackson.JacksonMessageBodyProvider;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Completes the futures of resource methods through Jersey, so that their entities are written with the type argument
+ * of the future rather than the future type the methods declare.
+ */
+public class AsyncResourceBinderTest {
+
+    private static volatile CompletableFuture<Greeting> pending;
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setup() {
+        pending = new CompletableFuture<>();
+        application = new ApplicationHandler(new ResourceConfig()
+                .register(new GreetingResource())
+                .register(new JacksonMessageBodyProvider(Jackson.newObjectMapper()))
+                .register(new AsyncResourceBinder(Runnable::run, new MetricRegistry())));
+    }
+
+    @Test
+    public void writesEntitiesOfCompletedFutures() throws Exception {
+        // When
+        Exchange exchange = get("/greetings/completed");
+
+        // Then
+        assertEquals(200, exchange.response().getStatus());
+        assertEquals("{\"text\":\"hello\"}", exchange.body());
+    }
+
+    @Test
+    public void writesEntitiesOfPendingFutures() throws Exception {
+        // Given
+        Exchange exchange = get("/greetings/pending");
+        assertFalse(exchange.response.isDone());
+
+        // When
+        pending.complete(new Greeting("hello"));
+
+        // Then
+        assertEquals(200, exchange.response().getStatus());
+        assertEquals("{\"text\":\"hello\"}", exchange.body());
+    }
+
+    @Test
+    public void writesGenericEntities() throws Exception {
+        // When
+        Exchange exchange = get("/greetings/all");
+
+        // Then
+        assertEquals(200, exchange.response().getStatus());
+        assertEquals("[{\"text\":\"hello\"},{\"text\":\"hi\"}]", exchange.body());
+    }
+
+    @Test
+    public void keepsResponsesOfFutures() throws Exception {
+        // When
+        Exchange exchange = get("/greetings/created");
+
+        // Then
+        assertEquals(201, exchange.response().getStatus());
+        assertEquals("{\"text\":\"hello\"}", exchange.body());
+    }
+
+    private Exchange get(String path) {
+        ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost" + path),
+                "GET", null, new MapPropertiesDelegate());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        return new Exchange(application.apply(request, body), body);
+    }
+
+    private static class Exchange {
+        private final Future<ContainerResponse> response;
+        private final ByteArrayOutputStream body;
+
+        private Exchange(Future<ContainerResponse> response, ByteArrayOutputStream body) {
+            this.response = response;
+            this.body = body;
+        }
+
+        private ContainerResponse response() throws Exception {
+            return response.get(5, TimeUnit.SECONDS);
+        }
+
+        private String body() {
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Path ("/greetings")
+    @Produces (MediaType.APPLICATION_JSON)
+    public static class GreetingResource {
+
+        @GET
+        @Path ("completed")
+        public CompletableFuture<Greeting> completed() {
+            return CompletableFuture.completedFuture(new Greeting("hello"));
+        }
+
+        @GET
+        @Path ("pending")
+        public CompletableFuture<Greeting> pending() {
+            return pending;
+        }
+
+        @GET
+        @Path ("all")
+        public CompletableFuture<List<Greeting>> all() {
+            return CompletableFuture.completedFuture(Arrays.asList(new Greeting("hello"), new Greeting("hi")));
+        }
+
+        @GET
+        @Path ("created")
+        public CompletableFuture<Response> created() {
+            return CompletableFuture.completedFuture(Response.status(201).entity(new Greeting("hello")).build());
+        }
+    }
+
+    public static class Greeting {
+        @JsonProperty
+        private final String text;
+
+        public Greeting(@JsonProperty ("text") String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.bazaarvoice.dropwizard.spring.async;
+
+import com.codahale.metrics.MetricRegistry;
+import org.glassfish.jersey.server.internal.process.AsyncContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.TimeoutHandler;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AsyncResponsesTest {
+
+    @Mock
+    private AsyncContext context;
+
+    private MetricRegistry metrics;
+
+    private AsyncResponses asyncResponses;
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(context.suspend()).thenReturn(true);
+
+        metrics = new MetricRegistry();
+        asyncResponses = new AsyncResponses(Runnable::run, metrics);
+    }
+
+    @Test
+    public void returnsCompletedValues() throws Exception {
+        // When
+        Object value = asyncResponses.suspend(context, CompletableFuture.completedFuture("hello"), 0);
+
+        // Then
+        assertEquals("hello", value);
+        verify(context, never()).suspend();
+    }
+
+    @Test
+    public void resumesPendingFutures() throws Exception {
+        // Given
+        CompletableFuture<String> future = new CompletableFuture<>();
+
+        // When
+        assertNull(asyncResponses.suspend(context, future, 0));
+
+        // Then
+        verify(context).suspend();
+        verify(context, never()).resume(any(Object.class));
+        assertEquals(1, metrics.counter(name(AsyncResponses.class, "suspended")).getCount());
+
+        // Given the future completes
+        future.complete("hello");
+
+        // Then
+        verify(context).resume((Object) "hello");
+        assertEquals(0, metrics.counter(name(AsyncResponses.class, "suspended")).getCount());
+        assertEquals(1, metrics.timer(name(AsyncResponses.class, "suspended-time")).getCount());
+    }
+
+    @Test
+    public void resumesFailures() throws Exception {
+        // Given
+        SettableListenableFuture<String> future = new SettableListenableFuture<>();
+        IllegalStateException failure = new IllegalStateException();
+        asyncResponses.suspend(context, future, 0);
+
+        // When
+        future.setException(failure);
+
+        // Then
+        verify(context).resume(failure);
+        assertEquals(1, metrics.meter(name(AsyncResponses.class, "failures")).getCount());
+    }
+
+    @Test
+    public void cancelsTimedOutFutures() throws Exception {
+        // Given
+        CompletableFuture<String> future = new CompletableFuture<>();
+        asyncResponses.suspend(context, future, 250);
+        ArgumentCaptor<TimeoutHandler> timeoutHandler = ArgumentCaptor.forClass(TimeoutHandler.class);
+        verify(context).setTimeout(250, TimeUnit.MILLISECONDS);
+        verify(context).setTimeoutHandler(timeoutHandler.capture());
+        when(context.isDone()).thenReturn(true);
+
+        // When
+        timeoutHandler.getValue().handleTimeout(context);
+
+        // Then
+        verify(context).resume(isA(ServiceUnavailableException.class));
+        assertTrue(future.isCancelled());
+        assertEquals(1, metrics.meter(name(AsyncResponses.class, "timeouts")).getCount());
+        assertEquals(0, metrics.meter(name(AsyncResponses.class, "failures")).getCount());
+    }
+}
@@ -0,0 +1,145 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import com.codahale.metrics.MetricRegistry;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class BatchScopeFilterTest {
+
+    private static final RecordingFunction FUNCTION = new RecordingFunction();
+
+    private static volatile AsyncResponse suspended;
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setup() {
+        FUNCTION.batches.clear();
+        suspended = null;
+        BatchLoaderRegistry registry = new BatchLoaderRegistry(Collections.singletonMap("squares", FUNCTION),
+                new MetricRegistry(), 10, null, 0);
+        application = new ApplicationHandler(new ResourceConfig()
+                .register(new ItemsResource())
+                .register(new BatchScopeFilter(registry)));
+    }
+
+    @Test
+    public void closesScopeOnceResponseIsProduced() throws Exception {
+        // When
+        ContainerResponse response = get("/items/sync").get();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals(Collections.singletonList(Collections.singletonList(2)), FUNCTION.batches);
+        assertFalse(BatchScope.isActive());
+    }
+
+    @Test
+    public void closesScopeOfSuspendedRequestOnResumingThread() throws Exception {
+        // Given
+        Future<ContainerResponse> pending = get("/items/async");
+        assertNotNull(suspended);
+        assertFalse(pending.isDone());
+        assertFalse(BatchScope.isActive());
+        assertEquals(Collections.singletonList(Collections.singletonList(1)), FUNCTION.batches);
+
+        // When
+        Thread resumer = new Thread(() -> suspended.resume("resumed"));
+        resumer.start();
+        resumer.join();
+
+        // Then
+        assertEquals(200, pending.get().getStatus());
+        assertEquals(Collections.singletonList(Collections.singletonList(1)), FUNCTION.batches);
+
+        // When
+        get("/items/sync").get();
+
+        // Then
+        assertEquals(Arrays.asList(Collections.singletonList(1), Collections.singletonList(2)), FUNCTION.batches);
+        assertFalse(BatchScope.isActive());
+    }
+
+    @Test
+    public void resumesSuspendedRequestWaitingOnItsLoads() throws Exception {
+        // When
+        ContainerResponse response = get("/items/composed").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(200, response.getStatus());
+        assertEquals("9", response.getEntity());
+        assertEquals(Collections.singletonList(Collections.singletonList(3)), FUNCTION.batches);
+    }
+
+    private Future<ContainerResponse> get(String path) {
+        ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost" + path),
+                "GET", null, new MapPropertiesDelegate());
+        return application.apply(request, new ByteArrayOutputStream());
+    }
+
+    @Path ("/items")
+    public static class ItemsResource {
+
+        @GET
+        @Path ("sync")
+        public String sync() {
+            assertTrue(BatchScope.isActive());
+            BatchScope.loader(FUNCTION).load(2);
+            return "queued";
+        }
+
+        @GET
+        @Path ("async")
+        public void async(@Suspended AsyncResponse response) {
+            assertTrue(BatchScope.isActive());
+            BatchScope.loader(FUNCTION).load(1);
+            suspended = response;
+        }
+
+        @GET
+        @Path ("composed")
+        public void composed(@Suspended AsyncResponse response) {
+            BatchScope.loader(FUNCTION).load(3).thenAccept(square -> response.resume(String.valueOf(square)));
+        }
+    }
+
+    private static class RecordingFunction implements BatchLoadFunction<Integer, Integer> {
+        private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public Map<Integer, Integer> load(Set<Integer> keys) {
+            batches.add(new ArrayList<>(keys));
+            Map<Integer, Integer> squares = new HashMap<>();
+            for (Integer key : keys) {
+                squares.put(key, key * key);
+            }
+            return squares;
+        }
+    }
+}
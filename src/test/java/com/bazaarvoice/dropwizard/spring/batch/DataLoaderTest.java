@@ -0,0 +1,160 @@
+package com.bazaarvoice.dropwizard.spring.batch;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DataLoaderTest {
+
+    private RecordingFunction function;
+
+    private MetricRegistry metrics;
+
+    private BatchScope scope;
+
+    @Before
+    public void setup() {
+        function = new RecordingFunction();
+        metrics = new MetricRegistry();
+        scope = BatchScope.open(new BatchLoaderRegistry(Collections.singletonMap("squares", function), metrics, 3, null, 0));
+    }
+
+    @After
+    public void teardown() {
+        scope.close();
+    }
+
+    @Test
+    public void coalescesLoadsIntoBatches() {
+        // When
+        DataLoader<Integer, Integer> loader = BatchScope.loader(function);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            futures.add(loader.load(i));
+        }
+        loader.dispatch();
+
+        // Then
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5)), function.batches);
+        assertEquals(25, (int) futures.get(4).join());
+        assertEquals(2, metrics.histogram(name(DataLoader.class, "squares", "batch-size")).getCount());
+    }
+
+    @Test
+    public void memoizesLoadsWithinScope() {
+        // When
+        CompletableFuture<Integer> first = BatchScope.loader(function).load(2);
+        CompletableFuture<Integer> second = BatchScope.loader(function).load(2);
+        BatchScope.loader(function).dispatch();
+
+        // Then
+        assertSame(first, second);
+        assertEquals(Collections.singletonList(Collections.singletonList(2)), function.batches);
+        assertEquals(2.0, (Double) metrics.getGauges().get(name(DataLoader.class, "squares", "coalescing-ratio")).getValue(), 0.0);
+    }
+
+    @Test
+    public void closingScopeDispatchesQueuedKeys() {
+        // When
+        CompletableFuture<Integer> future = BatchScope.loader(function).load(7);
+        assertFalse(future.isDone());
+        scope.close();
+
+        // Then
+        assertTrue(future.isDone());
+        assertEquals(49, (int) future.join());
+        assertFalse(BatchScope.isActive());
+    }
+
+    @Test
+    public void joiningALoadDispatchesQueuedKeysWithinTheBatchWindow() {
+        // Given
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scope.close();
+        scope = BatchScope.open(new BatchLoaderRegistry(Collections.singletonMap("squares", function),
+                new MetricRegistry(), 3, scheduler, 3600000));
+
+        try {
+            // When
+            DataLoader<Integer, Integer> loader = BatchScope.loader(function);
+            CompletableFuture<Integer> first = loader.load(1);
+            loader.load(2);
+
+            // Then
+            assertEquals(1, (int) first.join());
+            assertEquals(Collections.singletonList(Arrays.asList(1, 2)), function.batches);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void joiningLoadsOutsideOfAScopeDispatchesThem() {
+        // Given
+        scope.close();
+
+        // When
+        List<Integer> squares = BatchScope.loader(function).loadMany(Arrays.asList(3, 4)).join();
+
+        // Then
+        assertEquals(Arrays.asList(9, 16), squares);
+        assertEquals(Collections.singletonList(Arrays.asList(3, 4)), function.batches);
+    }
+
+    @Test
+    public void unbindingScopeDispatchesQueuedKeys() {
+        // When
+        CompletableFuture<Integer> future = BatchScope.loader(function).load(5);
+        scope.unbind();
+
+        // Then
+        assertTrue(future.isDone());
+        assertEquals(25, (int) future.join());
+        assertFalse(BatchScope.isActive());
+    }
+
+    @Test
+    public void failedBatchFailsItsFutures() {
+        // When
+        DataLoader<Integer, Integer> loader = BatchScope.loader(keys -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> future = loader.load(1);
+        loader.dispatch();
+
+        // Then
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    private static class RecordingFunction implements BatchLoadFunction<Integer, Integer> {
+        private final List<List<Integer>> batches = new ArrayList<>();
+
+        @Override
+        public Map<Integer, Integer> load(Set<Integer> keys) {
+            batches.add(new ArrayList<>(keys));
+            Map<Integer, Integer> squares = new HashMap<>();
+            for (Integer key : keys) {
+                squares.put(key, key * key);
+            }
+            return squares;
+        }
+    }
+}
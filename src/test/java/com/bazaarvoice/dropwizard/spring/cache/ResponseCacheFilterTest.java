@@ -0,0 +1,150 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class ResponseCacheFilterTest {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    private ResponseCache cache;
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setup() {
+        CALLS.set(0);
+        cache = new ResponseCache(1024, new MetricRegistry());
+        application = new ApplicationHandler(new ResourceConfig()
+                .register(new GreetingResource())
+                .register(new ResponseCacheFeature(cache))
+                .register(new LanguageFilter()));
+    }
+
+    @Test
+    public void replaysEntityAndHeaders() throws Exception {
+        // Given
+        Result first = get("/greeting", MediaType.APPLICATION_JSON, null);
+
+        // When
+        Result second = get("/greeting", MediaType.APPLICATION_JSON, null);
+
+        // Then
+        assertEquals(1, CALLS.get());
+        assertEquals(200, second.response.getStatus());
+        assertEquals(first.body, second.body);
+        assertEquals("{\"greeting\":\"hello\"}", second.body);
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, second.response.getMediaType());
+        assertEquals("no-transform, max-age=60", second.response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("en", second.response.getHeaderString(HttpHeaders.CONTENT_LANGUAGE));
+        assertEquals("greeting", second.response.getHeaderString("X-Resource"));
+        assertEquals(first.response.getHeaderString(HttpHeaders.ETAG), second.response.getHeaderString(HttpHeaders.ETAG));
+    }
+
+    @Test
+    public void answersNotModifiedForMatchingEntityTag() throws Exception {
+        // Given
+        String entityTag = get("/greeting", MediaType.APPLICATION_JSON, null).response.getHeaderString(HttpHeaders.ETAG);
+        assertNotNull(entityTag);
+
+        // When
+        Result result = get("/greeting", MediaType.APPLICATION_JSON, entityTag);
+
+        // Then
+        assertEquals(304, result.response.getStatus());
+        assertEquals("", result.body);
+        assertEquals(entityTag, result.response.getHeaderString(HttpHeaders.ETAG));
+        assertEquals("no-transform, max-age=60", result.response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals(1, CALLS.get());
+    }
+
+    @Test
+    public void keysEntriesByNegotiatedMediaType() throws Exception {
+        // When
+        Result json = get("/greeting", MediaType.APPLICATION_JSON, null);
+        Result text = get("/greeting", MediaType.TEXT_PLAIN, null);
+        Result preferringText = get("/greeting", "application/json;q=0.5, text/plain", null);
+
+        // Then
+        assertEquals(MediaType.APPLICATION_JSON_TYPE, json.response.getMediaType());
+        assertEquals(MediaType.TEXT_PLAIN_TYPE, text.response.getMediaType());
+        assertEquals("hello", text.body);
+        assertEquals("hello", preferringText.body);
+        assertEquals(2, CALLS.get());
+    }
+
+    private Result get(String path, String accept, String ifNoneMatch) throws Exception {
+        ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost" + path),
+                "GET", null, new MapPropertiesDelegate());
+        request.header(HttpHeaders.ACCEPT, accept);
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ContainerResponse response = application.apply(request, body).get();
+        return new Result(response, new String(body.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    private static class Result {
+        private final ContainerResponse response;
+        private final String body;
+
+        private Result(ContainerResponse response, String body) {
+            this.response = response;
+            this.body = body;
+        }
+    }
+
+    @Path ("/greeting")
+    @CachedResponse
+    public static class GreetingResource {
+
+        @GET
+        @Produces (MediaType.APPLICATION_JSON)
+        public Response json() {
+            CALLS.incrementAndGet();
+            CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(60);
+            return Response.ok("{\"greeting\":\"hello\"}").cacheControl(cacheControl).header("X-Resource", "greeting").build();
+        }
+
+        @GET
+        @Produces (MediaType.TEXT_PLAIN)
+        public String text() {
+            CALLS.incrementAndGet();
+            return "hello";
+        }
+    }
+
+    public static class LanguageFilter implements ContainerResponseFilter {
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+            response.getHeaders().putSingle(HttpHeaders.CONTENT_LANGUAGE, "en");
+        }
+    }
+}
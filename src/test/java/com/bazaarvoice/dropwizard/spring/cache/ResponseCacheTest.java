@@ -0,0 +1,91 @@
+package com.bazaarvoice.dropwizard.spring.cache;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTest {
+
+    private MetricRegistry metrics;
+
+    private ResponseCache cache;
+
+    @Before
+    public void setup() {
+        metrics = new MetricRegistry();
+        cache = new ResponseCache(10, metrics);
+    }
+
+    @Test
+    public void storesEntityBytes() {
+        // When
+        cache.put("/hello", new byte[] {1, 2, 3}, MediaType.TEXT_PLAIN_TYPE);
+
+        // Then
+        ResponseCache.Entry entry = cache.get("/hello");
+        assertNotNull(entry);
+        assertArrayEquals(new byte[] {1, 2, 3}, entry.getBody());
+        assertEquals(MediaType.TEXT_PLAIN_TYPE, entry.getMediaType());
+        assertEquals(3, cache.getUsedBytes());
+        assertEquals(1, metrics.meter(MetricRegistry.name(ResponseCache.class, "hits")).getCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntries() {
+        // When
+        cache.put("/a", new byte[4], MediaType.TEXT_PLAIN_TYPE);
+        cache.put("/b", new byte[4], MediaType.TEXT_PLAIN_TYPE);
+        cache.get("/a");
+        cache.put("/c", new byte[4], MediaType.TEXT_PLAIN_TYPE);
+
+        // Then
+        assertNotNull(cache.get("/a"));
+        assertNull(cache.get("/b"));
+        assertNotNull(cache.get("/c"));
+        assertEquals(8, cache.getUsedBytes());
+        assertEquals(1, metrics.meter(MetricRegistry.name(ResponseCache.class, "evictions")).getCount());
+    }
+
+    @Test
+    public void rejectsEntitiesLargerThanBudget() {
+        assertNull(cache.put("/large", new byte[11], MediaType.TEXT_PLAIN_TYPE));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void invalidatesByPathPrefix() {
+        // When
+        cache.put("/hello?name=a", new byte[1], MediaType.TEXT_PLAIN_TYPE);
+        cache.put("/hello?name=b", new byte[1], MediaType.TEXT_PLAIN_TYPE);
+        cache.put("/hello/a", new byte[1], MediaType.TEXT_PLAIN_TYPE);
+        cache.put("/helloworld", new byte[1], MediaType.TEXT_PLAIN_TYPE);
+        cache.put("/other", new byte[1], MediaType.TEXT_PLAIN_TYPE);
+
+        // Then
+        assertEquals(3, cache.invalidate("/hello"));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getUsedBytes());
+        assertNotNull(cache.get("/helloworld"));
+    }
+
+    @Test
+    public void matchesIfNoneMatch() {
+        ResponseCache.Entry entry = cache.put("/hello", new byte[] {1}, MediaType.TEXT_PLAIN_TYPE);
+        String tag = entry.getEntityTag().getValue();
+
+        assertTrue(entry.matches("\"" + tag + "\""));
+        assertTrue(entry.matches("\"other\", W/\"" + tag + "\""));
+        assertTrue(entry.matches("*"));
+        assertFalse(entry.matches("\"other\""));
+        assertFalse(entry.matches(null));
+    }
+}
@@ -0,0 +1,137 @@
+package com.bazaarvoice.dropwizard.spring.cds;
+
+import hello.HelloApp;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * Compares the boot time and resident memory of the {@link HelloApp} with and without an application class-data-sharing
+ * archive built by its {@code cds-training} command.  Every measure is taken in a fresh JVM launched with the same
+ * class path, so it needs a JDK 10 or later on Linux.  Since archives only hold classes loaded from jar files, the
+ * directories of the class path (such as the compiled test classes) are packaged as jars first.
+ * <p/>
+ * Run its main method on the test classpath, optionally with the number of boots per variant.
+ */
+public class ClassDataSharingStartupBenchmark {
+
+    private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("boot")) {
+            boot();
+            return;
+        }
+
+        int boots = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        File outputDir = Files.createTempDirectory("cds").toFile();
+        String classPath = jarClassPath(outputDir);
+
+        launch(Arrays.asList("-cp", classPath, HelloApp.class.getName()),
+                "cds-training", CONFIGURATION_FILE, "--output-dir", outputDir.getPath(), "--warmup-requests", "20");
+        launch(Collections.singletonList(argumentFile(new File(outputDir, ClassDataSharingTrainingCommand.DUMP_OPTIONS_FILE))));
+
+        List<String> boot = Arrays.asList("-cp", classPath,
+                ClassDataSharingStartupBenchmark.class.getName(), "boot");
+        List<String> bootWithArchive = new ArrayList<>();
+        bootWithArchive.add(argumentFile(new File(outputDir, ClassDataSharingTrainingCommand.RUN_OPTIONS_FILE)));
+        bootWithArchive.addAll(boot);
+
+        report("without archive", boots, boot);
+        report("with archive", boots, bootWithArchive);
+    }
+
+    /**
+     * Starts the server, then prints the JVM uptime and resident set size and exits.
+     */
+    private static void boot() throws Exception {
+        new HelloApp().run("server", CONFIGURATION_FILE);
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        long rssKb = 0;
+        for (String line : Files.readAllLines(Paths.get("/proc/self/status"))) {
+            if (line.startsWith("VmRSS:")) {
+                rssKb = Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        System.out.println("BOOT " + uptime + " " + rssKb);
+        System.exit(0);
+    }
+
+    private static void report(String name, int boots, List<String> arguments) throws Exception {
+        long totalMillis = 0;
+        long totalRssKb = 0;
+        for (int i = 0; i < boots; i++) {
+            String[] measure = launch(arguments).split(" ");
+            totalMillis += Long.parseLong(measure[1]);
+            totalRssKb += Long.parseLong(measure[2]);
+        }
+        System.out.printf("%-20s boot %,6d ms   RSS %,8d KB%n", name, totalMillis / boots, totalRssKb / boots);
+    }
+
+    /**
+     * Returns the class path of this JVM where every directory is replaced by a jar of its content.
+     */
+    private static String jarClassPath(File outputDir) throws IOException {
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path directory = Paths.get(entry);
+            if (!Files.isDirectory(directory)) {
+                entries.add(entry);
+                continue;
+            }
+            File jar = new File(outputDir, "classpath-" + entries.size() + ".jar");
+            try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar));
+                 Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                    out.putNextEntry(new JarEntry(directory.relativize(file).toString().replace(File.separatorChar, '/')));
+                    Files.copy(file, out);
+                    out.closeEntry();
+                }
+            }
+            entries.add(jar.getAbsolutePath());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static String argumentFile(File file) {
+        return "@" + file.getAbsolutePath();
+    }
+
+    /**
+     * Runs a JVM to completion and returns the last line it printed starting with 'BOOT', if any.
+     */
+    private static String launch(List<String> jvmArguments, String... programArguments) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.addAll(Arrays.asList(programArguments));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String measure = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.startsWith("BOOT ")) measure = line;
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException("Failed to run " + command);
+        }
+        return measure;
+    }
+}
@@ -0,0 +1,49 @@
+package com.bazaarvoice.dropwizard.spring.cds;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ClassDataSharingTrainingCommandTest {
+
+    @Test
+    public void parsesClassHierarchy() {
+        // Given
+        String hierarchy = "java.lang.Object/null\n"
+                + "|--hello.resources.HelloResource/0x00007f1c2c0e4e10\n"
+                + "|--hello.service.HelloService$$EnhancerBySpringCGLIB$$1a2b3c/0x00007f1c2c0e4e10\n"
+                + "|--hello.HelloApp$$Lambda$42/0x0000000800c0b230/0x00007f1c2c0e4e10\n"
+                + "|  |--java.util.AbstractMap/null\n"
+                + "|  |  |--java.util.HashMap/null\n"
+                + "|--java.io.Serializable/null (intf)\n";
+
+        // When
+        List<String> classes = ClassDataSharingTrainingCommand.parseClassHierarchy(hierarchy);
+
+        // Then
+        assertEquals(Arrays.asList("java/lang/Object", "hello/resources/HelloResource", "java/util/AbstractMap",
+                "java/util/HashMap", "java/io/Serializable"), classes);
+    }
+
+    @Test
+    public void quotesArgumentFileEntries() {
+        assertEquals("\"/opt/my app/lib/a.jar:C:\\\\lib\\\\b.jar\"",
+                ClassDataSharingTrainingCommand.quoted("/opt/my app/lib/a.jar:C:\\lib\\b.jar"));
+        assertEquals("\"say \\\"hi\\\"\"", ClassDataSharingTrainingCommand.quoted("say \"hi\""));
+    }
+
+    @Test
+    public void listsLoadedClasses() {
+        // VM.class_hierarchy is only available from Java 9
+        Assume.assumeTrue(!System.getProperty("java.specification.version").startsWith("1."));
+
+        List<String> classes = ClassDataSharingTrainingCommand.loadedClasses();
+
+        assertTrue(classes.contains("com/bazaarvoice/dropwizard/spring/cds/ClassDataSharingTrainingCommandTest"));
+    }
+}
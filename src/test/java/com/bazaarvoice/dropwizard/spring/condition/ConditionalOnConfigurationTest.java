@@ -0,0 +1,164 @@
+package com.bazaarvoice.dropwizard.spring.condition;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.dropwizard.Configuration;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import io.dropwizard.setup.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConditionalOnConfigurationTest {
+
+    private AnnotationConfigApplicationContext context;
+    private Environment environment;
+    private RolesConfiguration configuration;
+
+    @Before
+    public void setup() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(ApiComponent.class, WorkerConfiguration.class, AdminComponent.class);
+
+        environment = new Environment("test", Jackson.newObjectMapper(), Validators.newValidator(),
+                new MetricRegistry(), getClass().getClassLoader());
+
+        configuration = new RolesConfiguration();
+        configuration.roles = Arrays.asList("api", "admin");
+    }
+
+    @After
+    public void tearDown() {
+        context.close();
+    }
+
+    @Test
+    public void skipsComponentsOfDisabledGroups() throws Exception {
+        // When
+        new SpringBundle<RolesConfiguration>(context).enableConfigurationConditions(true).run(configuration, environment);
+
+        // Then
+        assertTrue(context.containsBean("apiComponent"));
+        assertFalse(context.containsBean(WorkerConfiguration.class.getName()));
+        assertFalse(context.containsBean("workerQueue"));
+        assertFalse(context.containsBean("adminComponent"));
+
+        ConfigurationConditionReport report = context.getBean(ConfigurationConditionReport.class);
+        assertEquals(1, report.getSkippedCount("worker"));
+        assertEquals(1, report.getSkippedCount("admin.enabled"));
+        assertEquals(0, report.getSkippedCount("api"));
+        assertEquals(1, environment.metrics().getGauges()
+                .get(name(ConditionalOnConfiguration.class, "skipped-conditions", "worker")).getValue());
+    }
+
+    @Test
+    public void definesEveryComponentWhenDisabled() throws Exception {
+        // When
+        new SpringBundle<RolesConfiguration>(context).run(configuration, environment);
+
+        // Then
+        assertTrue(context.containsBean("apiComponent"));
+        assertTrue(context.containsBean("workerQueue"));
+        assertTrue(context.containsBean("adminComponent"));
+    }
+
+    @Test
+    public void evaluatesBeanMethods() throws Exception {
+        // Given
+        configuration.roles = Arrays.asList("api", "worker");
+
+        // When
+        new SpringBundle<RolesConfiguration>(context).enableConfigurationConditions(true).run(configuration, environment);
+
+        // Then
+        assertTrue(context.containsBean("workerQueue"));
+        assertFalse(context.containsBean("workerMetrics"));
+        assertEquals(1, context.getBean(ConfigurationConditionReport.class).getSkippedCount("worker"));
+    }
+
+    @Test
+    public void nullPropertiesAreMissing() throws Exception {
+        // Given
+        context.register(CacheComponent.class);
+
+        // When
+        new SpringBundle<RolesConfiguration>(context).enableConfigurationConditions(true).run(configuration, environment);
+
+        // Then
+        assertTrue(context.containsBean("cacheComponent"));
+        assertEquals(0, context.getBean(ConfigurationConditionReport.class).getSkippedCount("cache"));
+    }
+
+    @Test
+    public void comparesValuesIgnoringCaseAndPropertyNamesExactly() throws Exception {
+        // Given
+        configuration.roles = Arrays.asList("API", " Worker");
+        context.register(CapitalizedPropertyComponent.class);
+
+        // When
+        new SpringBundle<RolesConfiguration>(context).enableConfigurationConditions(true).run(configuration, environment);
+
+        // Then
+        assertTrue(context.containsBean("apiComponent"));
+        assertTrue(context.containsBean("workerQueue"));
+        assertFalse(context.containsBean("capitalizedPropertyComponent"));
+        assertEquals(1, context.getBean(ConfigurationConditionReport.class).getSkippedCount("Roles"));
+    }
+
+    public static class RolesConfiguration extends Configuration {
+        @JsonProperty
+        private List<String> roles;
+
+        @JsonProperty
+        private String cache;
+    }
+
+    @Component ("apiComponent")
+    @ConditionalOnConfiguration (value = "roles", havingValue = "api", group = "api")
+    public static class ApiComponent {
+    }
+
+    @org.springframework.context.annotation.Configuration
+    @ConditionalOnConfiguration (value = "roles", havingValue = "worker", group = "worker")
+    public static class WorkerConfiguration {
+
+        @Bean
+        public Object workerQueue() {
+            return new Object();
+        }
+
+        @Bean
+        @ConditionalOnConfiguration (value = "roles", havingValue = "metrics", group = "worker")
+        public Object workerMetrics() {
+            return new Object();
+        }
+    }
+
+    @Component ("adminComponent")
+    @ConditionalOnConfiguration (value = "admin.enabled")
+    public static class AdminComponent {
+    }
+
+    @Component ("capitalizedPropertyComponent")
+    @ConditionalOnConfiguration (value = "Roles", havingValue = "api")
+    public static class CapitalizedPropertyComponent {
+    }
+
+    @Component ("cacheComponent")
+    @ConditionalOnConfiguration (value = "cache", havingValue = "memory", matchIfMissing = true)
+    public static class CacheComponent {
+    }
+}
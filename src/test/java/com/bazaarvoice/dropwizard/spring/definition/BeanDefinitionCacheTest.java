@@ -0,0 +1,263 @@
+package com.bazaarvoice.dropwizard.spring.definition;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.bazaarvoice.dropwizard.spring.condition.ConditionalOnConfiguration;
+import com.bazaarvoice.dropwizard.spring.condition.ConfigurationConditionReport;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import io.dropwizard.setup.Environment;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class BeanDefinitionCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ObjectMapper objectMapper = Jackson.newObjectMapper();
+    private final List<AnnotationConfigApplicationContext> contexts = new ArrayList<>();
+    private MetricRegistry metrics;
+    private File file;
+
+    @Before
+    public void setup() {
+        metrics = new MetricRegistry();
+        file = new File(temporaryFolder.getRoot(), "bean-definitions.json");
+    }
+
+    @After
+    public void tearDown() {
+        contexts.forEach(AnnotationConfigApplicationContext::close);
+    }
+
+    @Test
+    public void registersCachedDefinitions() throws Exception {
+        // Given
+        AnnotationConfigApplicationContext first = boot(CachedConfiguration.class, "first");
+        assertTrue(file.isFile());
+
+        // When
+        AnnotationConfigApplicationContext second = boot(CachedConfiguration.class, "first");
+
+        // Then
+        assertEquals(1, metrics.counter(name(BeanDefinitionCache.class, "hits")).getCount());
+        assertEquals(1, metrics.counter(name(BeanDefinitionCache.class, "misses")).getCount());
+        assertEquals(RootBeanDefinition.class, second.getBeanFactory().getBeanDefinition("greeting").getClass());
+        assertEquals(first.getBean("greeting").toString(), second.getBean("greeting").toString());
+        assertEquals("hello", second.getBean("salutation"));
+        assertEquals(42, second.getBean("answer"));
+        assertTrue(second.getBeanFactory().getBeanDefinition("lazyGreeting").isLazyInit());
+        assertSame(second.getBean("greeting"), second.getBean(CachedConfiguration.class).greeting());
+    }
+
+    @Test
+    public void invalidatesChangedConfigurations() throws Exception {
+        // Given
+        boot(CachedConfiguration.class, "first");
+
+        // When
+        AnnotationConfigApplicationContext second = boot(CachedConfiguration.class, "second");
+
+        // Then
+        assertEquals(1, metrics.counter(name(BeanDefinitionCache.class, "invalidations")).getCount());
+        assertEquals(2, metrics.counter(name(BeanDefinitionCache.class, "misses")).getCount());
+        assertNotSame(RootBeanDefinition.class, second.getBeanFactory().getBeanDefinition("greeting").getClass());
+    }
+
+    @Test
+    public void doesNotCacheDefinitionsOfRegistryPostProcessors() throws Exception {
+        // Given
+        boot(RegistryPostProcessorConfiguration.class, "first");
+
+        // When
+        AnnotationConfigApplicationContext second = boot(RegistryPostProcessorConfiguration.class, "first");
+
+        // Then
+        assertEquals(1, metrics.counter(name(BeanDefinitionCache.class, "hits")).getCount());
+        assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains("\"registeringPostProcessor\""));
+        assertFalse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains("\"registered\""));
+        assertEquals("registered", second.getBean("registered"));
+    }
+
+    @Test
+    public void restoresConfigurationConditionReport() throws Exception {
+        // Given
+        Environment firstEnvironment = environment();
+        AnnotationConfigApplicationContext first = bootBundle(firstEnvironment);
+        assertEquals(1, firstEnvironment.metrics().counter(name(BeanDefinitionCache.class, "misses")).getCount());
+
+        // When
+        Environment secondEnvironment = environment();
+        AnnotationConfigApplicationContext second = bootBundle(secondEnvironment);
+
+        // Then
+        assertEquals(1, secondEnvironment.metrics().counter(name(BeanDefinitionCache.class, "hits")).getCount());
+        for (AnnotationConfigApplicationContext context : Arrays.asList(first, second)) {
+            assertTrue(context.containsBean("enabledService"));
+            assertFalse(context.containsBean("disabledService"));
+            assertFalse(context.containsBean("disabledComponent"));
+            ConfigurationConditionReport report = context.getBean(ConfigurationConditionReport.class);
+            assertEquals(new TreeSet<>(Arrays.asList("disabled", "enabled")), report.getGroups());
+            assertEquals(2, report.getSkippedCount("disabled"));
+            assertEquals(0, report.getSkippedCount("enabled"));
+        }
+        assertEquals(2, secondEnvironment.metrics().getGauges()
+                .get(name(ConditionalOnConfiguration.class, "skipped-conditions", "disabled")).getValue());
+    }
+
+    @Test
+    public void doesNotCachePropertySources() throws Exception {
+        // When
+        boot(PropertySourceConfiguration.class, "first");
+
+        // Then
+        assertFalse(file.exists());
+    }
+
+    private AnnotationConfigApplicationContext boot(Class<?> configurationClass, String name) throws Exception {
+        NamedConfiguration configuration = new NamedConfiguration();
+        configuration.name = name;
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        contexts.add(context);
+        context.register(configurationClass);
+        BeanDefinitionCache cache = new BeanDefinitionCache(file, objectMapper, metrics);
+        cache.apply(context, configuration);
+        context.refresh();
+        cache.store();
+        return context;
+    }
+
+    private AnnotationConfigApplicationContext bootBundle(Environment environment) throws Exception {
+        NamedConfiguration configuration = new NamedConfiguration();
+        configuration.name = "first";
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        contexts.add(context);
+        context.register(ConditionalConfiguration.class, DisabledComponent.class);
+        new SpringBundle<NamedConfiguration>(context)
+                .enableConfigurationConditions(true)
+                .enableBeanDefinitionCache(file.getPath())
+                .run(configuration, environment);
+        return context;
+    }
+
+    private Environment environment() {
+        return new Environment("cached", objectMapper, Validators.newValidator(), new MetricRegistry(), getClass().getClassLoader());
+    }
+
+    public static class NamedConfiguration extends io.dropwizard.Configuration {
+        @JsonProperty
+        private String name;
+    }
+
+    @Configuration
+    @Import (ImportedConfiguration.class)
+    public static class CachedConfiguration {
+
+        @Bean
+        public StringBuilder greeting() {
+            return new StringBuilder(salutation());
+        }
+
+        @Bean
+        public String salutation() {
+            return "hello";
+        }
+
+        @Bean
+        @Lazy
+        public String lazyGreeting() {
+            return "lazy " + salutation();
+        }
+    }
+
+    @Configuration
+    public static class ImportedConfiguration {
+
+        @Bean
+        public static Integer answer() {
+            return 42;
+        }
+    }
+
+    @Configuration
+    public static class RegistryPostProcessorConfiguration {
+
+        @Bean
+        public static BeanDefinitionRegistryPostProcessor registeringPostProcessor() {
+            return new BeanDefinitionRegistryPostProcessor() {
+                @Override
+                public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+                    Preconditions.checkState(!registry.containsBeanDefinition("registered"), "registered twice");
+                    registry.registerBeanDefinition("registered", BeanDefinitionBuilder.genericBeanDefinition(String.class)
+                            .addConstructorArgValue("registered").getBeanDefinition());
+                }
+
+                @Override
+                public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+                }
+            };
+        }
+    }
+
+    @Configuration
+    public static class ConditionalConfiguration {
+
+        @Bean
+        @ConditionalOnConfiguration (value = "name", havingValue = "first", group = "enabled")
+        public String enabledService() {
+            return "enabled";
+        }
+
+        @Bean
+        @ConditionalOnConfiguration (value = "name", havingValue = "second", group = "disabled")
+        public String disabledService() {
+            return "disabled";
+        }
+    }
+
+    @Component ("disabledComponent")
+    @ConditionalOnConfiguration (value = "name", havingValue = "second", group = "disabled")
+    public static class DisabledComponent {
+    }
+
+    @Configuration
+    @PropertySource ("classpath:hello/hello.yml")
+    public static class PropertySourceConfiguration {
+    }
+}
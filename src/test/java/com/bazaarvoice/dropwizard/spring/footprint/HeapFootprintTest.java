@@ -0,0 +1,183 @@
+package com.bazaarvoice.dropwizard.spring.footprint;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMultimap;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class HeapFootprintTest {
+
+    private DefaultListableBeanFactory beanFactory;
+
+    private MetricRegistry metrics;
+
+    private HeapFootprint footprint;
+
+    @Before
+    public void setup() {
+        byte[] shared = new byte[10000];
+        Holder large = new Holder(new byte[100000], shared);
+        Holder small = new Holder(new byte[1000], shared);
+        Holder cyclic = new Holder(new byte[5000], null);
+        cyclic.next = new Holder(null, cyclic);
+        Holder referencing = new Holder(null, large);
+
+        beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("large", large);
+        beanFactory.registerSingleton("small", small);
+        beanFactory.registerSingleton("cyclic", cyclic);
+        beanFactory.registerSingleton("referencing", referencing);
+
+        metrics = new MetricRegistry();
+        footprint = new HeapFootprint(beanFactory, new ObjectGraphSizer(true), metrics, 2, 60000);
+    }
+
+    @Test
+    public void estimatesRetainedSizes() {
+        // When
+        HeapFootprintReport report = footprint.refresh();
+
+        // Then
+        List<String> beanNames = new ArrayList<>();
+        for (HeapFootprintReport.Entry entry : report.getEntries()) {
+            beanNames.add(entry.getBeanName());
+        }
+        assertEquals("large", beanNames.get(0));
+        assertEquals("cyclic", beanNames.get(1));
+
+        HeapFootprintReport.Entry large = report.getEntry("large");
+        assertEquals(24, large.getShallowBytes());
+        assertEquals(24 + 100016, large.getRetainedBytes());
+        assertEquals(24 + 100016 + 10016, large.getReachableBytes());
+        assertEquals(5016 + 2 * 24, report.getEntry("cyclic").getRetainedBytes());
+        assertEquals(24, report.getEntry("referencing").getRetainedBytes());
+        assertEquals(10016, report.getSharedBytes());
+    }
+
+    @Test
+    public void registersTopRetainedSizesAsGauges() {
+        // When
+        footprint.refresh();
+
+        // Then
+        assertEquals(24L + 100016, metrics.getGauges().get(name(HeapFootprint.class, "retained-bytes", "large")).getValue());
+        assertTrue(metrics.getGauges().containsKey(name(HeapFootprint.class, "retained-bytes", "cyclic")));
+        assertFalse(metrics.getGauges().containsKey(name(HeapFootprint.class, "retained-bytes", "small")));
+        Gauge<?> shared = metrics.getGauges().get(name(HeapFootprint.class, "shared-bytes"));
+        assertEquals(10016L, shared.getValue());
+    }
+
+    @Test
+    public void gaugesReadTheLastReportWithoutComputingIt() {
+        // When
+        Object retained = metrics.getGauges().get(name(HeapFootprint.class, "retained-bytes")).getValue();
+
+        // Then
+        assertEquals(0L, retained);
+        assertNull(footprint.getLastReport());
+    }
+
+    @Test
+    public void refreshesInTheBackground() throws Exception {
+        // Given
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+        try {
+            // When
+            footprint.scheduleRefresh(executor);
+
+            // Then
+            long deadline = System.currentTimeMillis() + 10000;
+            while (footprint.getLastReport() == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(24L + 100016, metrics.getGauges().get(name(HeapFootprint.class, "retained-bytes", "large")).getValue());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresGaugesOfSomeSingletons() {
+        new HeapFootprint(beanFactory, new ObjectGraphSizer(true), new MetricRegistry(), 0, 60000);
+    }
+
+    @Test
+    public void walksJdkCollectionsThroughTheirApi() {
+        // Given
+        Assume.assumeTrue(!System.getProperty("java.specification.version").startsWith("1."));
+        Holder element = new Holder(null, null);
+        List<Object> references = new ArrayList<>();
+
+        // When
+        new ObjectGraphSizer(true).forEachReference(new ArrayList<>(Collections.singletonList(element)), references::add);
+
+        // Then
+        assertEquals(Collections.singletonList(element), references);
+    }
+
+    @Test
+    public void taskPrintsSortedReport() throws Exception {
+        // Given
+        StringWriter output = new StringWriter();
+
+        // When
+        new HeapFootprintTask(footprint).execute(ImmutableMultimap.of("limit", "1"), new PrintWriter(output));
+
+        // Then
+        String[] lines = output.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("4 singletons retain"));
+        assertTrue(lines[2].contains("large (" + Holder.class.getName() + ")"));
+    }
+
+    @Test
+    public void taskRejectsLimitsThatAreNotPositiveNumbers() throws Exception {
+        for (String limit : new String[] {"0", "-1", "ten"}) {
+            // Given
+            StringWriter output = new StringWriter();
+
+            // When
+            new HeapFootprintTask(footprint).execute(ImmutableMultimap.of("limit", limit), new PrintWriter(output));
+
+            // Then
+            assertEquals("The limit must be a positive number of singletons, not '" + limit + "'", output.toString().trim());
+        }
+        assertNull(footprint.getLastReport());
+    }
+
+    @Test
+    public void sizesArraysFromTheirLayout() {
+        assertEquals(120, new ObjectGraphSizer(true).shallowSize(new byte[100]));
+        assertEquals(128, new ObjectGraphSizer(false).shallowSize(new byte[100]));
+        assertEquals(56, new ObjectGraphSizer(true).shallowSize(new Object[10]));
+        assertEquals(24, new ObjectGraphSizer(true).shallowSize(new Holder(null, null)));
+    }
+
+    static class Holder {
+        private final byte[] data;
+        private Object next;
+
+        Holder(byte[] data, Object next) {
+            this.data = data;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.bazaarvoice.dropwizard.spring.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.dropwizard.jackson.Jackson;
+
+import javax.ws.rs.GET;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the throughput of serializing a resource entity with Dropwizard's {@link ObjectMapper}, creating an
+ * {@link ObjectWriter} for its type on every call, against the warmed up {@link ObjectWriter} cached for the
+ * same mapper by the {@link ObjectMapperCache} of {@code SpringBundle.optimizeObjectMapper(true)}.
+ * <p/>
+ * Run its main method on the test classpath.
+ */
+public class ObjectMapperCacheBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int ITERATIONS = 500_000;
+
+    public static void main(String[] args) throws Exception {
+        Type entityType = new TypeReference<List<Item>>() {}.getType();
+        List<Item> payload = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            payload.add(new Item(i, "Item #" + i));
+        }
+
+        ObjectMapper mapper = Jackson.newObjectMapper();
+        ObjectMapperCache cache = new ObjectMapperCache(mapper);
+        cache.warmUp(ItemResource.class);
+
+        report("mapper, writerFor", () -> mapper.writerFor(mapper.constructType(entityType)).writeValue(NullOutputStream.INSTANCE, payload));
+        report("mapper, cached writer", () -> cache.writer(entityType).writeValue(NullOutputStream.INSTANCE, payload));
+    }
+
+    private static void report(String name, Serialization serialization) throws Exception {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            serialization.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            serialization.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-30s %,12.0f ops/s%n", name, ITERATIONS / (elapsed / 1e9));
+    }
+
+    public static class Item {
+        private final int id;
+        private final String name;
+
+        public Item(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    public static class ItemResource {
+
+        @GET
+        public List<Item> items() {
+            return new ArrayList<>();
+        }
+    }
+
+    private interface Serialization {
+        void run() throws Exception;
+    }
+
+    private static class NullOutputStream extends OutputStream {
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
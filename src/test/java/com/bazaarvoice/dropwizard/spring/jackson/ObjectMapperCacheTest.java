@@ -0,0 +1,85 @@
+package com.bazaarvoice.dropwizard.spring.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.core.Response;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ObjectMapperCacheTest {
+
+    private ObjectMapperCache cache;
+
+    @Before
+    public void setup() {
+        cache = new ObjectMapperCache(new ObjectMapper());
+    }
+
+    @Test
+    public void cachesReadersAndWriters() {
+        assertSame(cache.writer(Greeting.class), cache.writer(Greeting.class));
+        assertSame(cache.reader(Greeting.class), cache.reader(Greeting.class));
+    }
+
+    @Test
+    public void warmsUpEntityTypesOfResourceMethods() throws Exception {
+        // When
+        int warmed = cache.warmUp(GreetingResource.class);
+
+        // Then : List<Greeting> and Greeting returned, Greeting read, Response and path parameters skipped
+        assertEquals(3, warmed);
+        assertEquals("{\"message\":\"hi\"}", cache.writer(Greeting.class).writeValueAsString(new Greeting("hi")));
+    }
+
+    public static class Greeting {
+        private String message;
+
+        public Greeting() {
+        }
+
+        public Greeting(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    @Path("/greetings")
+    public static class GreetingResource {
+
+        @GET
+        public List<Greeting> list() {
+            return Collections.emptyList();
+        }
+
+        @GET
+        @Path("/{id}")
+        public Greeting get(@PathParam("id") String id) {
+            return new Greeting(id);
+        }
+
+        @POST
+        public Response create(Greeting greeting) {
+            return Response.ok().build();
+        }
+
+        public Greeting notAResourceMethod() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.bazaarvoice.dropwizard.spring.jdbc;
+
+import com.codahale.metrics.MetricRegistry;
+import org.h2.jdbc.JdbcConnection;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class InstrumentedDataSourceTest {
+
+    private MetricRegistry metrics;
+
+    private InstrumentedDataSource dataSource;
+
+    @Before
+    public void setup() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:instrumented;DB_CLOSE_DELAY=-1");
+
+        metrics = new MetricRegistry();
+        dataSource = new InstrumentedDataSource(h2, "helloDataSource", metrics, 0);
+    }
+
+    @Test
+    public void tracksConnectionsAndStatements() throws Exception {
+        // When
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(1, metrics.counter(name(InstrumentedDataSource.class, "helloDataSource", "active")).getCount());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS greeting (message VARCHAR(64))");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM greeting")) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    assertTrue(resultSet.next());
+                }
+            }
+        }
+
+        // Then
+        assertEquals(1, metrics.timer(name(InstrumentedDataSource.class, "helloDataSource", "acquire")).getCount());
+        assertEquals(0, metrics.counter(name(InstrumentedDataSource.class, "helloDataSource", "active")).getCount());
+        assertEquals(2, metrics.timer(name(InstrumentedDataSource.class, "helloDataSource", "statements")).getCount());
+        assertEquals(2, metrics.meter(name(InstrumentedDataSource.class, "helloDataSource", "slow-statements")).getCount());
+    }
+
+    @Test
+    public void connectionsAreNotUnwrappedIntoTheirTarget() throws Exception {
+        // When
+        try (Connection connection = dataSource.getConnection()) {
+
+            // Then
+            assertEquals(connection, connection);
+            assertFalse(connection.equals(connection.unwrap(JdbcConnection.class)));
+            assertSame(connection, connection.unwrap(Connection.class));
+            assertTrue(connection.isWrapperFor(Connection.class));
+        }
+        assertEquals(0, metrics.counter(name(InstrumentedDataSource.class, "helloDataSource", "active")).getCount());
+    }
+
+    @Test
+    public void healthCheckValidatesConnection() throws Exception {
+        assertTrue(new DataSourceHealthCheck(dataSource, 1).execute().isHealthy());
+        assertEquals(0, metrics.counter(name(InstrumentedDataSource.class, "helloDataSource", "active")).getCount());
+    }
+}
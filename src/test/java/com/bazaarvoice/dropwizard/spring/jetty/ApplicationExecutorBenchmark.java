@@ -0,0 +1,142 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Snapshot;
+import com.codahale.metrics.UniformReservoir;
+import com.google.common.collect.ImmutableList;
+import hello.config.HelloAppConfiguration;
+import io.dropwizard.Application;
+import io.dropwizard.request.logging.LogbackAccessRequestLogFactory;
+import io.dropwizard.server.DefaultServerFactory;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of an I/O-bound resource, blocking {@value #BLOCKING_MILLIS} ms per request, served by the
+ * default {@code QueuedThreadPool} (capped at {@value #MAX_THREADS} threads) against a virtual thread per request, as
+ * done by {@code SpringBundle.enableVirtualThreads(true)}.
+ * <p/>
+ * Run its main method with Java 21 on a class path holding the packaged multi-release jar rather than the compiled
+ * classes directory, otherwise only the thread pool is measured.
+ */
+public class ApplicationExecutorBenchmark {
+
+    private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
+    private static final int MAX_THREADS = 64;
+    private static final int CLIENTS = 256;
+    private static final long BLOCKING_MILLIS = 100;
+    private static final long WARMUP_SECONDS = 3;
+    private static final long MEASURE_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        // Keep a connection per client alive instead of the 5 cached by default
+        System.setProperty("http.maxConnections", String.valueOf(CLIENTS));
+
+        report("QueuedThreadPool", false);
+        if (VirtualThreads.isSupported()) {
+            report("virtual threads", true);
+        } else {
+            System.out.println("virtual threads      skipped, Java 21 and the multi-release jar are required");
+        }
+    }
+
+    private static void report(String name, boolean virtualThreads) throws Exception {
+        BenchmarkApp app = new BenchmarkApp(virtualThreads);
+        app.run("server", CONFIGURATION_FILE);
+        try {
+            URL url = new URL("http://localhost:" + app.port() + "/io");
+            load(url, WARMUP_SECONDS);
+            Histogram latencies = load(url, MEASURE_SECONDS);
+            Snapshot snapshot = latencies.getSnapshot();
+            System.out.printf("%-20s %,10.0f req/s   p50 %6.1f ms   p99 %6.1f ms%n", name,
+                    latencies.getCount() / (double) MEASURE_SECONDS, snapshot.getMedian() / 1e6, snapshot.get99thPercentile() / 1e6);
+        } finally {
+            app.server.stop();
+        }
+    }
+
+    private static Histogram load(URL url, long seconds) throws Exception {
+        Histogram latencies = new Histogram(new UniformReservoir());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            futures.add(clients.submit(() -> {
+                byte[] buffer = new byte[1024];
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+                    try (InputStream body = connection.getInputStream()) {
+                        while (body.read(buffer) >= 0) {
+                            // drain the response to reuse the connection
+                        }
+                    }
+                    latencies.update(System.nanoTime() - start);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+        return latencies;
+    }
+
+    @Path("/io")
+    public static class BlockingResource {
+
+        @GET
+        public String get() throws InterruptedException {
+            Thread.sleep(BLOCKING_MILLIS);
+            return "done";
+        }
+    }
+
+    private static class BenchmarkApp extends Application<HelloAppConfiguration> {
+
+        private final boolean virtualThreads;
+        private volatile Server server;
+
+        private BenchmarkApp(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+
+        @Override
+        public void initialize(Bootstrap<HelloAppConfiguration> bootstrap) {
+            AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+            context.register(BlockingResource.class);
+            bootstrap.addBundle(new SpringBundle<>(context).enableVirtualThreads(virtualThreads));
+        }
+
+        @Override
+        public void run(HelloAppConfiguration configuration, Environment environment) {
+            DefaultServerFactory serverFactory = (DefaultServerFactory) configuration.getServerFactory();
+            serverFactory.setMaxThreads(MAX_THREADS);
+            LogbackAccessRequestLogFactory requestLog = new LogbackAccessRequestLogFactory();
+            requestLog.setAppenders(ImmutableList.of());
+            serverFactory.setRequestLogFactory(requestLog);
+            environment.lifecycle().addServerLifecycleListener(server -> this.server = server);
+        }
+
+        private int port() {
+            return ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+        }
+    }
+}
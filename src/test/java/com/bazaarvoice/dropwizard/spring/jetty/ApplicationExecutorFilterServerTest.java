@@ -0,0 +1,145 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.EnumSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs the filter in front of a servlet on a real Jetty server, which resets the request scope once the filter returns.
+ */
+public class ApplicationExecutorFilterServerTest {
+
+    private final ClassLoader applicationClassLoader = new URLClassLoader(new URL[0], getClass().getClassLoader());
+
+    private ExecutorService executor;
+
+    private Server server;
+
+    @Before
+    public void setup() throws Exception {
+        executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "application-executor"));
+
+        ServletContextHandler handler = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        handler.setContextPath("/app");
+        handler.setClassLoader(applicationClassLoader);
+        handler.addFilter(new FilterHolder(authenticating()), "/*", EnumSet.of(DispatcherType.REQUEST));
+        handler.addFilter(new FilterHolder(new ApplicationExecutorFilter(executor)), "/*", EnumSet.of(DispatcherType.REQUEST));
+        handler.addServlet(new ServletHolder(new ScopeServlet()), "/scope/*");
+
+        server = new Server(0);
+        server.setHandler(handler);
+        server.start();
+    }
+
+    @After
+    public void teardown() throws Exception {
+        server.stop();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void processesRequestsInTheScopeOfTheContext() throws Exception {
+        // When
+        String body = get("/app/scope/info");
+
+        // Then
+        assertEquals(String.join("\n",
+                "thread=application-executor",
+                "classLoader=application",
+                "context=/app",
+                "path=/scope /info",
+                "user=alice",
+                "session=alice"), body);
+    }
+
+    private String get(String path) throws IOException {
+        int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        assertEquals(200, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            for (int read; (read = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Stands in for a security handler: authenticates the request and keeps the user in the session.
+     */
+    private static Filter authenticating() {
+        return new Filter() {
+            @Override
+            public void init(FilterConfig filterConfig) {
+            }
+
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response,
+                                 FilterChain chain) throws IOException, ServletException {
+                HttpServletRequest httpRequest = (HttpServletRequest) request;
+                httpRequest.getSession(true).setAttribute("user", "alice");
+                chain.doFilter(new HttpServletRequestWrapper(httpRequest) {
+                    @Override
+                    public Principal getUserPrincipal() {
+                        return () -> "alice";
+                    }
+                }, response);
+            }
+
+            @Override
+            public void destroy() {
+            }
+        };
+    }
+
+    private class ScopeServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ContextHandler.Context context = ContextHandler.getCurrentContext();
+            HttpSession session = request.getSession(false);
+            response.setContentType("text/plain");
+            response.getWriter().print(String.join("\n",
+                    "thread=" + Thread.currentThread().getName(),
+                    "classLoader=" + (Thread.currentThread().getContextClassLoader() == applicationClassLoader ? "application" : "other"),
+                    "context=" + (context == null ? null : context.getContextPath()),
+                    "path=" + request.getServletPath() + " " + request.getPathInfo(),
+                    "user=" + (request.getUserPrincipal() == null ? null : request.getUserPrincipal().getName()),
+                    "session=" + (session == null ? null : session.getAttribute("user"))));
+        }
+    }
+}
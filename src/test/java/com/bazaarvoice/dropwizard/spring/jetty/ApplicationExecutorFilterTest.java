@@ -0,0 +1,96 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ApplicationExecutorFilterTest {
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private AsyncContext asyncContext;
+
+    @Mock
+    private FilterChain chain;
+
+    private final List<Runnable> tasks = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        MockitoAnnotations.initMocks(this);
+        when(request.startAsync()).thenReturn(asyncContext);
+        when(request.getServletPath()).thenReturn("");
+        when(request.getPathInfo()).thenReturn("/hello");
+    }
+
+    @Test
+    public void processesRequestsOnTheExecutor() throws Exception {
+        // When
+        new ApplicationExecutorFilter(tasks::add).doFilter(request, response, chain);
+
+        // Then
+        verify(chain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        assertEquals(1, tasks.size());
+
+        // Given the dispatch has returned
+        when(request.getPathInfo()).thenReturn(null);
+
+        // When
+        tasks.get(0).run();
+
+        // Then
+        ArgumentCaptor<ServletRequest> dispatched = ArgumentCaptor.forClass(ServletRequest.class);
+        verify(chain).doFilter(dispatched.capture(), eq(response));
+        assertEquals("/hello", ((HttpServletRequest) dispatched.getValue()).getPathInfo());
+        verify(asyncContext).complete();
+    }
+
+    @Test
+    public void suspendedRequestsAreNotCompleted() throws Exception {
+        // Given
+        FilterChain suspendingChain = (servletRequest, servletResponse) -> assertSame(asyncContext, servletRequest.startAsync());
+
+        // When
+        new ApplicationExecutorFilter(tasks::add).doFilter(request, response, suspendingChain);
+        tasks.get(0).run();
+
+        // Then
+        verify(asyncContext, never()).complete();
+    }
+
+    @Test
+    public void rejectedRequestsAreUnavailable() throws Exception {
+        // When
+        new ApplicationExecutorFilter(task -> { throw new RejectedExecutionException("full"); }).doFilter(request, response, chain);
+
+        // Then
+        verify(response).sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(asyncContext).complete();
+        verify(chain, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class));
+    }
+}
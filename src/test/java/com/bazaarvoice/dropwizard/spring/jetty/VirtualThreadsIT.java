@@ -0,0 +1,83 @@
+package com.bazaarvoice.dropwizard.spring.jetty;
+
+import com.codahale.metrics.MetricRegistry;
+import io.dropwizard.lifecycle.Managed;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.junit.Test;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs against the packaged multi-release jar on Java 21 and later (see the {@code jdk21} profile), where the Java 21
+ * implementation of {@link VirtualThreads} replaces the Java 8 one.
+ */
+public class VirtualThreadsIT {
+
+    @Test
+    public void processesRequestsOnVirtualThreads() throws Exception {
+        // Given
+        assertTrue(VirtualThreads.isSupported());
+        MetricRegistry metrics = new MetricRegistry();
+        Managed monitor = VirtualThreads.monitor(metrics);
+        monitor.start();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("application-");
+
+        ServletContextHandler handler = new ServletContextHandler();
+        handler.addFilter(new FilterHolder(new ApplicationExecutorFilter(executor)), "/*", EnumSet.of(DispatcherType.REQUEST));
+        handler.addServlet(new ServletHolder(new ThreadServlet()), "/thread");
+        Server server = new Server(0);
+        server.setHandler(handler);
+        server.start();
+
+        try {
+            // When
+            int port = ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/thread").openConnection();
+
+            // Then
+            assertEquals(200, connection.getResponseCode());
+            try (InputStream in = connection.getInputStream(); Scanner scanner = new Scanner(in, StandardCharsets.UTF_8.name())) {
+                assertEquals("virtual=true", scanner.useDelimiter("\\A").next());
+            }
+            assertTrue(metrics.getNames().stream().anyMatch(name -> name.startsWith(VirtualThreads.class.getName())));
+        } finally {
+            server.stop();
+            executor.shutdown();
+            monitor.stop();
+        }
+    }
+
+    private static class ThreadServlet extends HttpServlet {
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            boolean virtual;
+            try {
+                // Thread.isVirtual() does not exist in the Java 8 API the tests are compiled against
+                virtual = (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread());
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+            response.setContentType("text/plain");
+            response.getWriter().print("virtual=" + virtual);
+        }
+    }
+}
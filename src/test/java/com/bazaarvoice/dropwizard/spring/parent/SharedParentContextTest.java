@@ -0,0 +1,288 @@
+package com.bazaarvoice.dropwizard.spring.parent;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.bazaarvoice.dropwizard.spring.footprint.HeapFootprint;
+import com.bazaarvoice.dropwizard.spring.footprint.ObjectGraphSizer;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.ImmutableMultimap;
+import io.dropwizard.Configuration;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import io.dropwizard.servlets.tasks.Task;
+import io.dropwizard.setup.Environment;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import java.io.PrintWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SharedParentContextTest {
+
+    @Test
+    public void closesContextWhenLastReferenceIsReleased() {
+        // Given
+        AtomicInteger created = new AtomicInteger();
+        SharedParentContext first = SharedParentContext.acquire("released", () -> {
+            created.incrementAndGet();
+            return new AnnotationConfigApplicationContext(InfrastructureConfiguration.class);
+        });
+        SharedParentContext second = SharedParentContext.acquire("released", () -> {
+            throw new AssertionError("The shared context must be reused");
+        });
+
+        assertNull(first.getFootprint());
+        HeapFootprint footprint = first.scheduleFootprint(60000);
+
+        // When
+        first.release();
+
+        // Then
+        assertSame(first, second);
+        assertSame(footprint, second.scheduleFootprint(1000));
+        assertEquals(1, created.get());
+        assertEquals(1, second.getReferences());
+        assertTrue(second.getContext().isActive());
+
+        // When
+        second.release();
+
+        // Then
+        assertFalse(second.getContext().isActive());
+        SharedParentContext third = SharedParentContext.acquire("released",
+                () -> new AnnotationConfigApplicationContext(InfrastructureConfiguration.class));
+        assertNotSame(second, third);
+        third.release();
+    }
+
+    @Test
+    public void sharesInfrastructureBetweenApplications() throws Exception {
+        // Given
+        Environment firstEnvironment = environment();
+        Environment secondEnvironment = environment();
+
+        // When
+        ConfigurableApplicationContext first = run(firstEnvironment, false);
+        ConfigurableApplicationContext second = run(secondEnvironment, true);
+
+        // Then
+        ConfigurableApplicationContext parent = first.getParent() instanceof ConfigurableApplicationContext
+                ? (ConfigurableApplicationContext) first.getParent() : null;
+        assertSame(parent, second.getParent());
+        assertSame(first.getBean(ApplicationService.class).pool, second.getBean(ApplicationService.class).pool);
+        assertNotSame(first.getBean(ApplicationService.class), second.getBean(ApplicationService.class));
+        assertEquals(1, first.getBeansOfType(Task.class).size());
+
+        MetricRegistry firstMetrics = firstEnvironment.metrics();
+        assertEquals(first.getBeanDefinitionCount(), firstMetrics.getGauges().get(name(SharedParentContext.class, "infrastructure", "child-beans")).getValue());
+        assertFalse(firstMetrics.getGauges().containsKey(name(SharedParentContext.class, "infrastructure", "retained-bytes")));
+        assertFalse(firstMetrics.getGauges().containsKey(name(SharedParentContext.class, "infrastructure", "child-retained-bytes")));
+
+        MetricRegistry metrics = secondEnvironment.metrics();
+        assertEquals(2, metrics.getGauges().get(name(SharedParentContext.class, "infrastructure", "applications")).getValue());
+        assertEquals(parent.getBeanDefinitionCount(), metrics.getGauges().get(name(SharedParentContext.class, "infrastructure", "beans")).getValue());
+        assertTrue(await(metrics.getGauges().get(name(SharedParentContext.class, "infrastructure", "retained-bytes"))) >= 4096);
+        long childRetainedBytes = await(metrics.getGauges().get(name(SharedParentContext.class, "infrastructure", "child-retained-bytes")));
+        assertTrue(childRetainedBytes > 0);
+        assertEquals(childRetainedBytes, metrics.getGauges().get(name(HeapFootprint.class, "retained-bytes")).getValue());
+        HeapFootprint childFootprint = new HeapFootprint(second.getBeanFactory(), new ObjectGraphSizer(), 60000);
+        assertTrue(childFootprint.getReport().getEntry("applicationService").getRetainedBytes() < 4096);
+
+        // When
+        stop(firstEnvironment);
+
+        // Then
+        assertTrue(parent.isActive());
+
+        // When
+        stop(secondEnvironment);
+
+        // Then
+        assertFalse(parent.isActive());
+    }
+
+    @Test
+    public void releasesContextWhenTheApplicationFailsToStart() throws Exception {
+        // Given
+        AtomicInteger created = new AtomicInteger();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(FailingConfiguration.class);
+
+        // When
+        try {
+            new SpringBundle<>(context)
+                    .withSharedParentContext("failing", () -> {
+                        created.incrementAndGet();
+                        return new AnnotationConfigApplicationContext(InfrastructureConfiguration.class);
+                    })
+                    .run(new Configuration(), environment());
+            fail("The context must fail to refresh");
+        } catch (BeanCreationException e) {
+            // expected
+        }
+
+        // Then
+        assertFalse(((ConfigurableApplicationContext) context.getParent()).isActive());
+        SharedParentContext.acquire("failing", () -> {
+            created.incrementAndGet();
+            return new AnnotationConfigApplicationContext(InfrastructureConfiguration.class);
+        }).release();
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    public void closesContextWhichFailsToRefresh() {
+        // Given
+        AtomicInteger closed = new AtomicInteger();
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext() {
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+                super.close();
+            }
+        };
+        context.register(FailingConfiguration.class);
+
+        // When
+        try {
+            SharedParentContext.acquire("unrefreshable", () -> context);
+            fail("The context must fail to refresh");
+        } catch (BeanCreationException e) {
+            // expected
+        }
+
+        // Then
+        assertEquals(1, closed.get());
+        assertFalse(context.isActive());
+        SharedParentContext.acquire("unrefreshable",
+                () -> new AnnotationConfigApplicationContext(InfrastructureConfiguration.class)).release();
+    }
+
+    @Test
+    public void rejectsApplicationsRegisteringTheSameMetrics() throws Exception {
+        // Given
+        Environment environment = environment();
+        ConfigurableApplicationContext first = run(environment, false);
+        ConfigurableApplicationContext parent = (ConfigurableApplicationContext) first.getParent();
+
+        // When
+        try {
+            run(environment, false);
+            fail("The metrics of the shared parent context must not be registered twice");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        // Then
+        assertEquals(1, environment.metrics().getGauges().get(name(SharedParentContext.class, "infrastructure", "applications")).getValue());
+
+        // When
+        stop(environment);
+
+        // Then
+        assertFalse(parent.isActive());
+    }
+
+    private static Environment environment() {
+        return new Environment("shared", Jackson.newObjectMapper(), Validators.newValidator(), new MetricRegistry(),
+                SharedParentContextTest.class.getClassLoader());
+    }
+
+    private static ConfigurableApplicationContext run(Environment environment, boolean heapFootprint) throws Exception {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.register(ApplicationConfiguration.class);
+        SpringBundle<Configuration> bundle = new SpringBundle<>(context)
+                .withSharedParentContext("infrastructure",
+                        () -> new AnnotationConfigApplicationContext(InfrastructureConfiguration.class));
+        if (heapFootprint) bundle.enableHeapFootprint(10);
+        bundle.run(new Configuration(), environment);
+        for (LifeCycle lifeCycle : environment.lifecycle().getManagedObjects()) {
+            lifeCycle.start();
+        }
+        return context;
+    }
+
+    /**
+     * Waits for the background computation of the heap footprint read by the gauge.
+     */
+    private static long await(Gauge<?> gauge) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while ((Long) gauge.getValue() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return (Long) gauge.getValue();
+    }
+
+    private static void stop(Environment environment) throws Exception {
+        for (LifeCycle lifeCycle : environment.lifecycle().getManagedObjects()) {
+            lifeCycle.stop();
+        }
+    }
+
+    public static class InfrastructureConfiguration {
+
+        @Bean
+        public ConnectionPool connectionPool() {
+            return new ConnectionPool();
+        }
+
+        @Bean
+        public Task infrastructureTask() {
+            return new NamedTask("infrastructure");
+        }
+    }
+
+    public static class ApplicationConfiguration {
+
+        @Bean
+        public ApplicationService applicationService() {
+            return new ApplicationService();
+        }
+
+        @Bean
+        public Task applicationTask() {
+            return new NamedTask("application");
+        }
+    }
+
+    public static class FailingConfiguration {
+
+        @Bean
+        public ApplicationService applicationService() {
+            throw new IllegalStateException("Unable to start");
+        }
+    }
+
+    public static class ConnectionPool {
+        private final byte[] buffers = new byte[4096];
+    }
+
+    public static class ApplicationService {
+        @Autowired
+        private ConnectionPool pool;
+    }
+
+    static class NamedTask extends Task {
+        NamedTask(String name) {
+            super(name);
+        }
+
+        @Override
+        public void execute(ImmutableMultimap<String, String> parameters, PrintWriter output) {
+        }
+    }
+}
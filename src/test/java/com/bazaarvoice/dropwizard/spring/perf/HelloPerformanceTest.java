@@ -0,0 +1,130 @@
+package com.bazaarvoice.dropwizard.spring.perf;
+
+import com.google.common.collect.ImmutableList;
+import hello.HelloApp;
+import hello.config.HelloAppConfiguration;
+import io.dropwizard.jetty.HttpConnectorFactory;
+import io.dropwizard.request.logging.LogbackAccessRequestLogFactory;
+import io.dropwizard.server.DefaultServerFactory;
+import io.dropwizard.setup.Environment;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.net.URL;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Measures what the whole {@code SpringBundle} stack costs per request, by loading the endpoints of the
+ * {@link HelloApp} booted in-process on ephemeral ports, and fails when a scenario regresses against the
+ * {@link PerformanceBaseline}.  Run on a machine other than the one the baseline was recorded on, it fails through
+ * {@code -Pperf} and is skipped otherwise.
+ * <p/>
+ * Excluded from the default build, run it with {@code mvn test -Pperf}.  The {@code perf.warmupSeconds} and
+ * {@code perf.measureSeconds} system properties set the duration of every scenario.
+ */
+public class HelloPerformanceTest {
+
+    private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
+    private static final long WARMUP_SECONDS = Long.getLong("perf.warmupSeconds", 5);
+    private static final long MEASURE_SECONDS = Long.getLong("perf.measureSeconds", 10);
+    private static final int CLIENTS = 16;
+    private static final int REQUESTS_PER_SECOND = 200;
+
+    private static PerformanceApp app;
+    private static PerformanceBaseline baseline;
+
+    @BeforeClass
+    public static void startApp() throws Exception {
+        // Keep a connection per client alive instead of the 5 cached by default
+        System.setProperty("http.maxConnections", "256");
+
+        baseline = PerformanceBaseline.load();
+        if (!baseline.isComparable()) {
+            String reason = "The baseline was recorded on " + baseline.getMachine() + ", not " + PerformanceBaseline.machine();
+            if (Boolean.getBoolean(PerformanceBaseline.REQUIRED_PROPERTY)) {
+                fail(reason + ", record it on this machine with -D" + PerformanceBaseline.UPDATE_PROPERTY + "=true");
+            }
+            System.out.println(reason + ", skipping the performance suite");
+            Assume.assumeTrue(false);
+        }
+        app = new PerformanceApp();
+        app.run("server", CONFIGURATION_FILE);
+    }
+
+    @AfterClass
+    public static void stopApp() throws Exception {
+        if (app != null && app.server != null) {
+            app.server.stop();
+        }
+        baseline.save();
+    }
+
+    @Test
+    public void helloClosedLoop() throws Exception {
+        check(new LoadGenerator("GET", app.url("application", "/hello"))
+                .closedLoop("hello.closed-loop", CLIENTS, WARMUP_SECONDS, MEASURE_SECONDS));
+    }
+
+    @Test
+    public void helloOpenLoop() throws Exception {
+        check(new LoadGenerator("GET", app.url("application", "/hello"))
+                .openLoop("hello.open-loop", REQUESTS_PER_SECOND, WARMUP_SECONDS, MEASURE_SECONDS));
+    }
+
+    @Test
+    public void healthCheckClosedLoop() throws Exception {
+        check(new LoadGenerator("GET", app.url("admin", "/healthcheck"))
+                .closedLoop("healthcheck.closed-loop", CLIENTS, WARMUP_SECONDS, MEASURE_SECONDS));
+    }
+
+    @Test
+    public void taskClosedLoop() throws Exception {
+        check(new LoadGenerator("POST", app.url("admin", "/tasks/hello-task"))
+                .closedLoop("task.closed-loop", CLIENTS, WARMUP_SECONDS, MEASURE_SECONDS));
+    }
+
+    private static void check(LoadResult result) {
+        System.out.println(result);
+        assertEquals(result.getScenario() + " errors", 0, result.getErrors());
+        List<String> regressions = baseline.check(result);
+        assertTrue(String.join(", ", regressions), regressions.isEmpty());
+    }
+
+    /**
+     * The hello application listening on ephemeral ports, without request logs.
+     */
+    private static class PerformanceApp extends HelloApp {
+
+        private volatile Server server;
+
+        @Override
+        public void run(HelloAppConfiguration configuration, Environment environment) throws Exception {
+            super.run(configuration, environment);
+            DefaultServerFactory serverFactory = (DefaultServerFactory) configuration.getServerFactory();
+            ((HttpConnectorFactory) serverFactory.getApplicationConnectors().get(0)).setPort(0);
+            ((HttpConnectorFactory) serverFactory.getAdminConnectors().get(0)).setPort(0);
+            LogbackAccessRequestLogFactory requestLog = new LogbackAccessRequestLogFactory();
+            requestLog.setAppenders(ImmutableList.of());
+            serverFactory.setRequestLogFactory(requestLog);
+            environment.lifecycle().addServerLifecycleListener(server -> this.server = server);
+        }
+
+        private URL url(String connectorName, String path) throws Exception {
+            for (Connector connector : server.getConnectors()) {
+                if (connectorName.equals(connector.getName())) {
+                    return new URL("http", "localhost", ((ServerConnector) connector).getLocalPort(), path);
+                }
+            }
+            throw new IllegalStateException("No " + connectorName + " connector");
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.bazaarvoice.dropwizard.spring.perf;
+
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends HTTP requests to an in-process server and records their latencies in an HdrHistogram, along with the bytes
+ * allocated while measuring by the clients, measured within their tasks, and by the other threads of the JVM that are
+ * still alive at the end of the measurement, server threads included.
+ * <p/>
+ * A closed loop keeps a fixed number of clients sending requests back to back, measuring the throughput the stack
+ * sustains.  An open loop sends requests at a fixed rate whatever the response times, and measures latencies from the
+ * time each request was meant to be sent, so that a stalled server is not hidden by the clients waiting for it
+ * (coordinated omission).
+ */
+class LoadGenerator {
+
+    private static final int MAX_OPEN_LOOP_CONNECTIONS = 256;
+
+    private final String method;
+    private final URL url;
+
+    LoadGenerator(String method, URL url) {
+        this.method = method;
+        this.url = url;
+    }
+
+    LoadResult closedLoop(String scenario, int clients, long warmupSeconds, long measureSeconds) throws Exception {
+        runClosedLoop(clients, warmupSeconds, new Recorder(3), new AtomicLong(), new Allocations());
+
+        Recorder latencies = new Recorder(3);
+        AtomicLong errors = new AtomicLong();
+        Allocations allocations = new Allocations();
+        long start = System.nanoTime();
+        runClosedLoop(clients, measureSeconds, latencies, errors, allocations);
+        long elapsed = System.nanoTime() - start;
+        return new LoadResult(scenario, latencies.getIntervalHistogram(), errors.get(), elapsed, allocations.total());
+    }
+
+    LoadResult openLoop(String scenario, int requestsPerSecond, long warmupSeconds, long measureSeconds) throws Exception {
+        runOpenLoop(requestsPerSecond, warmupSeconds, new Recorder(3), new AtomicLong(), new Allocations());
+
+        Recorder latencies = new Recorder(3);
+        AtomicLong errors = new AtomicLong();
+        Allocations allocations = new Allocations();
+        long start = System.nanoTime();
+        runOpenLoop(requestsPerSecond, measureSeconds, latencies, errors, allocations);
+        long elapsed = System.nanoTime() - start;
+        return new LoadResult(scenario, latencies.getIntervalHistogram(), errors.get(), elapsed, allocations.total());
+    }
+
+    private void runClosedLoop(int clients, long seconds, Recorder latencies, AtomicLong errors, Allocations allocations)
+            throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < clients; i++) {
+                futures.add(executor.submit(() -> {
+                    long allocated = allocations.currentThread();
+                    byte[] buffer = new byte[4096];
+                    while (System.nanoTime() < deadline) {
+                        long sent = System.nanoTime();
+                        send(buffer, errors);
+                        latencies.recordValue(System.nanoTime() - sent);
+                    }
+                    allocations.client(allocated);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void runOpenLoop(int requestsPerSecond, long seconds, Recorder latencies, AtomicLong errors, Allocations allocations)
+            throws Exception {
+        long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long start = System.nanoTime();
+        long requests = seconds * requestsPerSecond;
+        ExecutorService executor = Executors.newFixedThreadPool(MAX_OPEN_LOOP_CONNECTIONS);
+        try {
+            ThreadLocal<byte[]> buffers = ThreadLocal.withInitial(() -> new byte[4096]);
+            List<Future<?>> futures = new ArrayList<>();
+            for (long i = 0; i < requests; i++) {
+                long intended = start + i * interval;
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    TimeUnit.NANOSECONDS.sleep(delay);
+                }
+                futures.add(executor.submit(() -> {
+                    long allocated = allocations.currentThread();
+                    send(buffers.get(), errors);
+                    latencies.recordValue(System.nanoTime() - intended);
+                    allocations.client(allocated);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void send(byte[] buffer, AtomicLong errors) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod(method);
+            if ("POST".equals(method)) {
+                connection.setDoOutput(true);
+                try (OutputStream body = connection.getOutputStream()) {
+                    body.flush();
+                }
+            }
+            int status = connection.getResponseCode();
+            try (InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                while (body != null && body.read(buffer) >= 0) {
+                    // drain the response to reuse the connection
+                }
+            }
+            if (status >= 400) {
+                errors.incrementAndGet();
+            }
+        } catch (IOException e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    /**
+     * The bytes allocated during a measurement.  The client threads only live for the measurement, so they measure their
+     * own allocations within their tasks, while the other threads are compared with a snapshot taken when it starts.
+     */
+    private static class Allocations {
+        private final com.sun.management.ThreadMXBean threads = allocationThreads();
+        private final Map<Long, Long> before = new HashMap<>();
+        private final Set<Long> clients = ConcurrentHashMap.newKeySet();
+        private final AtomicLong clientBytes = new AtomicLong();
+
+        private Allocations() {
+            if (threads != null) {
+                long[] ids = threads.getAllThreadIds();
+                long[] allocated = threads.getThreadAllocatedBytes(ids);
+                for (int i = 0; i < ids.length; i++) {
+                    before.put(ids[i], Math.max(0, allocated[i]));
+                }
+            }
+        }
+
+        /**
+         * The bytes allocated so far by the current thread, to be passed to {@link #client} at the end of a task.
+         */
+        long currentThread() {
+            return threads == null ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        void client(long allocatedBefore) {
+            if (threads != null) {
+                clients.add(Thread.currentThread().getId());
+                clientBytes.addAndGet(currentThread() - allocatedBefore);
+            }
+        }
+
+        /**
+         * The bytes allocated since the measurement started, or -1 when the JVM does not measure them.
+         */
+        long total() {
+            if (threads == null) {
+                return -1;
+            }
+            long total = clientBytes.get();
+            long[] ids = threads.getAllThreadIds();
+            long[] allocated = threads.getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                if (allocated[i] >= 0 && !clients.contains(ids[i])) {
+                    total += Math.max(0, allocated[i] - before.getOrDefault(ids[i], 0L));
+                }
+            }
+            return total;
+        }
+
+        private static com.sun.management.ThreadMXBean allocationThreads() {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            return allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()
+                    ? allocations : null;
+        }
+    }
+}
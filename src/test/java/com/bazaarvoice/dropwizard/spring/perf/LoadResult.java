@@ -0,0 +1,62 @@
+package com.bazaarvoice.dropwizard.spring.perf;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latencies, errors and allocations measured by a {@link LoadGenerator} run.
+ */
+class LoadResult {
+
+    private final String scenario;
+    private final Histogram latencies;
+    private final long errors;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+
+    LoadResult(String scenario, Histogram latencies, long errors, long elapsedNanos, long allocatedBytes) {
+        this.scenario = scenario;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    String getScenario() {
+        return scenario;
+    }
+
+    long getErrors() {
+        return errors;
+    }
+
+    double getThroughput() {
+        return latencies.getTotalCount() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    double getLatencyMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    /**
+     * The allocation rate, in MB per second, or a negative value when not measured.
+     */
+    double getAllocationRate() {
+        return allocatedBytes < 0 ? -1 : allocatedBytes / 1e6 / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * The bytes allocated per request, by the clients as well as the server, or a negative value when not measured.
+     */
+    long getAllocatedBytesPerRequest() {
+        return allocatedBytes < 0 || latencies.getTotalCount() == 0 ? -1 : allocatedBytes / latencies.getTotalCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s %,9.0f req/s   p50 %7.2f ms   p99 %7.2f ms   p99.9 %7.2f ms   max %7.2f ms   %,7.1f MB/s   %,8d B/req   %d errors",
+                scenario, getThroughput(), getLatencyMillis(50), getLatencyMillis(99), getLatencyMillis(99.9),
+                latencies.getMaxValue() / 1e6, getAllocationRate(), getAllocatedBytesPerRequest(), errors);
+    }
+}
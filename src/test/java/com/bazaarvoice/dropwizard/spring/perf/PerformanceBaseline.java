@@ -0,0 +1,132 @@
+package com.bazaarvoice.dropwizard.spring.perf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The throughput and p99 latency of every scenario of the performance suite, stored in a properties file.
+ * <p/>
+ * A scenario regresses when its throughput drops, or its p99 latency grows, by more than the {@value #TOLERANCE_PROPERTY}
+ * system property (a ratio, 0.25 by default).  Latencies must also grow by more than the {@value #SLACK_PROPERTY} system
+ * property (5 ms by default), since p99s of a few milliseconds jitter by more than the ratio from one run to the next.  The file also records the machine it was measured on (processors,
+ * architecture and Java version), since results are only comparable on that machine: the suite fails on any other
+ * machine when the {@value #REQUIRED_PROPERTY} system property is true, as in the {@code perf} profile, and is skipped
+ * otherwise.  Scenarios missing from the file fail: they are only recorded, along with every other scenario, when the
+ * {@value #UPDATE_PROPERTY} system property is true.
+ */
+class PerformanceBaseline {
+
+    static final String FILE_PROPERTY = "perf.baseline";
+    static final String TOLERANCE_PROPERTY = "perf.tolerance";
+    static final String SLACK_PROPERTY = "perf.latencySlackMillis";
+    static final String UPDATE_PROPERTY = "perf.updateBaseline";
+    static final String REQUIRED_PROPERTY = "perf.required";
+
+    private static final String MACHINE_KEY = "machine";
+
+    private static final String DEFAULT_FILE = "src/test/resources/perf/baseline.properties";
+    private static final double DEFAULT_TOLERANCE = 0.25;
+    private static final double DEFAULT_SLACK_MILLIS = 5;
+
+    private final File file;
+    private final double tolerance;
+    private final double slackMillis;
+    private final boolean update;
+    private final Properties properties = new Properties();
+    private boolean modified;
+
+    private PerformanceBaseline(File file, double tolerance, double slackMillis, boolean update) {
+        this.file = file;
+        this.tolerance = tolerance;
+        this.slackMillis = slackMillis;
+        this.update = update;
+    }
+
+    static PerformanceBaseline load() throws IOException {
+        PerformanceBaseline baseline = new PerformanceBaseline(new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)),
+                Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY, String.valueOf(DEFAULT_TOLERANCE))),
+                Double.parseDouble(System.getProperty(SLACK_PROPERTY, String.valueOf(DEFAULT_SLACK_MILLIS))),
+                Boolean.getBoolean(UPDATE_PROPERTY));
+        if (baseline.file.isFile()) {
+            try (InputStream in = Files.newInputStream(baseline.file.toPath())) {
+                baseline.properties.load(in);
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Whether the results of this machine can be compared with the baseline, or are recorded as the new baseline.
+     */
+    synchronized boolean isComparable() {
+        return update || machine().equals(properties.getProperty(MACHINE_KEY));
+    }
+
+    /**
+     * The machine the baseline was recorded on, if any.
+     */
+    synchronized String getMachine() {
+        return properties.getProperty(MACHINE_KEY);
+    }
+
+    /**
+     * Compares the result with its baseline, or records it when the baseline is being updated.
+     *
+     * @return the regressions, if any
+     */
+    synchronized List<String> check(LoadResult result) {
+        String throughputKey = result.getScenario() + ".throughput";
+        String p99Key = result.getScenario() + ".p99Millis";
+        List<String> regressions = new ArrayList<>();
+        if (update) {
+            properties.setProperty(MACHINE_KEY, machine());
+            properties.setProperty(throughputKey, String.format("%.0f", result.getThroughput()));
+            properties.setProperty(p99Key, String.format("%.2f", result.getLatencyMillis(99)));
+            modified = true;
+            return regressions;
+        }
+        if (!properties.containsKey(throughputKey) || !properties.containsKey(p99Key)) {
+            regressions.add(String.format("%s has no baseline, record it with -D%s=true", result.getScenario(), UPDATE_PROPERTY));
+            return regressions;
+        }
+
+        double throughput = Double.parseDouble(properties.getProperty(throughputKey));
+        if (result.getThroughput() < throughput * (1 - tolerance)) {
+            regressions.add(String.format("%s throughput dropped from %.0f to %.0f req/s", result.getScenario(),
+                    throughput, result.getThroughput()));
+        }
+        double p99 = Double.parseDouble(properties.getProperty(p99Key));
+        if (result.getLatencyMillis(99) > Math.max(p99 * (1 + tolerance), p99 + slackMillis)) {
+            regressions.add(String.format("%s p99 latency grew from %.2f to %.2f ms", result.getScenario(),
+                    p99, result.getLatencyMillis(99)));
+        }
+        return regressions;
+    }
+
+    /**
+     * Writes the recorded results, if any.
+     */
+    synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            properties.store(out, "Performance baseline, refresh with -D" + UPDATE_PROPERTY + "=true on the reference machine");
+        }
+    }
+
+    static String machine() {
+        return Runtime.getRuntime().availableProcessors() + " cpus, " + System.getProperty("os.arch")
+                + ", Java " + System.getProperty("java.specification.version");
+    }
+}
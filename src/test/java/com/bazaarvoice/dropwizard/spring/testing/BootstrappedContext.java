@@ -0,0 +1,50 @@
+package com.bazaarvoice.dropwizard.spring.testing;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import io.dropwizard.Configuration;
+import io.dropwizard.setup.Environment;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * A Spring application context bootstrapped through {@link SpringBundle#run(Configuration, Environment)}, along with
+ * the configuration and environment it was run with.  Instances are shared between tests and must not be modified.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class BootstrappedContext<T extends Configuration> {
+
+    private final T configuration;
+    private final Environment environment;
+    private final SpringBundle<T> bundle;
+    private final long estimatedBytes;
+
+    BootstrappedContext(T configuration, Environment environment, SpringBundle<T> bundle, long estimatedBytes) {
+        this.configuration = configuration;
+        this.environment = environment;
+        this.bundle = bundle;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    public T getConfiguration() {
+        return configuration;
+    }
+
+    public Environment getEnvironment() {
+        return environment;
+    }
+
+    public SpringBundle<T> getBundle() {
+        return bundle;
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return bundle.getContext();
+    }
+
+    /**
+     * The bytes allocated by the thread bootstrapping the context, an upper bound of its footprint which, unlike the
+     * used heap, does not depend on garbage collections.
+     */
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
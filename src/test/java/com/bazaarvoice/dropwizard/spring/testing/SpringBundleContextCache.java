@@ -0,0 +1,212 @@
+package com.bazaarvoice.dropwizard.spring.testing;
+
+import io.dropwizard.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A JVM-wide, least-recently-used cache of {@link BootstrappedContext}s shared by the {@link SpringBundleContextRule}s.
+ * <p/>
+ * A context is bootstrapped once per key, even when several tests ask for it concurrently, and is only closed once it
+ * has been evicted and no running test uses it anymore.  The cache holds at most {@value #DEFAULT_MAX_SIZE} contexts,
+ * which can be changed with the {@value #MAX_SIZE_PROPERTY} system property, and may also be bounded by the bytes
+ * allocated while bootstrapping them with the {@value #MAX_BYTES_PROPERTY} system property.  Hit statistics are logged,
+ * and the cached contexts closed, when the JVM exits.
+ */
+@SuppressWarnings ("WeakerAccess")
+public class SpringBundleContextCache {
+
+    public static final String MAX_SIZE_PROPERTY = "dropwizard.spring.contextCache.maxSize";
+    public static final String MAX_BYTES_PROPERTY = "dropwizard.spring.contextCache.maxBytes";
+    public static final int DEFAULT_MAX_SIZE = 16;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SpringBundleContextCache.class);
+
+    private static final SpringBundleContextCache INSTANCE = new SpringBundleContextCache(
+            Integer.getInteger(MAX_SIZE_PROPERTY, DEFAULT_MAX_SIZE),
+            Long.getLong(MAX_BYTES_PROPERTY, Long.MAX_VALUE));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            LOG.info(INSTANCE.toString());
+            INSTANCE.close();
+        }, "spring-context-cache-shutdown"));
+    }
+
+    private final int maxSize;
+    private final long maxBytes;
+    private final LinkedHashMap<Object, Lease> leases = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    SpringBundleContextCache(int maxSize, long maxBytes) {
+        this.maxSize = maxSize;
+        this.maxBytes = maxBytes;
+    }
+
+    public static SpringBundleContextCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns a lease on the context cached under the key, bootstrapping it if needed.  The lease must be
+     * {@link #release(Lease) released} once the context is not used anymore.
+     */
+    <T extends Configuration> Lease acquire(Object key, Callable<BootstrappedContext<T>> bootstrap) throws Exception {
+        Lease lease;
+        boolean bootstrapping = false;
+        synchronized (this) {
+            lease = leases.get(key);
+            if (lease == null) {
+                lease = new Lease();
+                leases.put(key, lease);
+                misses++;
+                bootstrapping = true;
+            } else {
+                hits++;
+            }
+            lease.references++;
+        }
+
+        if (bootstrapping) {
+            try {
+                lease.context.complete(bootstrap.call());
+            } catch (Exception | Error e) {
+                lease.context.completeExceptionally(e);
+                synchronized (this) {
+                    leases.remove(key, lease);
+                }
+            }
+            evict();
+        }
+
+        try {
+            lease.context.get();
+        } catch (ExecutionException e) {
+            release(lease);
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+        return lease;
+    }
+
+    void release(Lease lease) {
+        boolean close;
+        synchronized (this) {
+            lease.references--;
+            close = lease.evicted && lease.references == 0;
+        }
+        if (close) {
+            lease.close();
+        }
+        evict();
+    }
+
+    /**
+     * Evicts the least recently used contexts that are not in use until the cache fits in its limits.
+     */
+    private void evict() {
+        List<Lease> evicted = new ArrayList<>();
+        synchronized (this) {
+            long usedBytes = 0;
+            for (Lease lease : leases.values()) {
+                usedBytes += lease.estimatedBytes();
+            }
+            int size = leases.size();
+            Iterator<Lease> iterator = leases.values().iterator();
+            while ((size > maxSize || usedBytes > maxBytes) && iterator.hasNext()) {
+                Lease lease = iterator.next();
+                if (lease.references > 0 || !lease.context.isDone()) {
+                    continue;
+                }
+                iterator.remove();
+                lease.evicted = true;
+                evicted.add(lease);
+                usedBytes -= lease.estimatedBytes();
+                size--;
+                evictions++;
+            }
+        }
+        for (Lease lease : evicted) {
+            lease.close();
+        }
+    }
+
+    /**
+     * Evicts and closes every cached context, even those still in use.
+     */
+    void close() {
+        List<Lease> evicted;
+        synchronized (this) {
+            evicted = new ArrayList<>(leases.values());
+            evictions += evicted.size();
+            for (Lease lease : evicted) {
+                lease.evicted = true;
+            }
+            leases.clear();
+        }
+        for (Lease lease : evicted) {
+            try {
+                lease.close();
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to close cached context", e);
+            }
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return leases.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long requests = hits + misses;
+        return String.format("Spring context cache : %d hits, %d misses (%.1f%% hit ratio), %d evictions, %d cached contexts",
+                hits, misses, requests == 0 ? 0.0 : 100.0 * hits / requests, evictions, leases.size());
+    }
+
+    /**
+     * A use of a cached context.
+     */
+    static class Lease {
+        private final CompletableFuture<BootstrappedContext<?>> context = new CompletableFuture<>();
+        private int references;
+        private boolean evicted;
+
+        @SuppressWarnings ("unchecked")
+        <T extends Configuration> BootstrappedContext<T> getContext() {
+            return (BootstrappedContext<T>) context.join();
+        }
+
+        private long estimatedBytes() {
+            return context.isDone() && !context.isCompletedExceptionally() ? context.join().getEstimatedBytes() : 0;
+        }
+
+        private void close() {
+            if (context.isDone() && !context.isCompletedExceptionally()) {
+                context.join().getContext().close();
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.bazaarvoice.dropwizard.spring.testing;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Preconditions;
+import io.dropwizard.Configuration;
+import io.dropwizard.configuration.YamlConfigurationFactory;
+import io.dropwizard.jackson.Jackson;
+import io.dropwizard.jersey.validation.Validators;
+import io.dropwizard.setup.Environment;
+import org.junit.rules.TestRule;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.validation.Validator;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * A JUnit rule providing a Spring application context scanned from the given packages and bootstrapped through
+ * {@link SpringBundle#run(Configuration, Environment)} with the given configuration file.
+ * <p/>
+ * Contexts are shared through the {@link SpringBundleContextCache}: every rule with the same configuration class,
+ * configuration file, packages and bundle options key gets the same context, so it is only bootstrapped once per JVM
+ * and can be used by tests running in parallel, as long as they do not modify it.
+ * <p/>
+ * For example :
+ * <pre>
+ * &#64;ClassRule
+ * public static final SpringBundleContextRule&lt;HelloAppConfiguration&gt; CONTEXT =
+ *         new SpringBundleContextRule&lt;&gt;(HelloAppConfiguration.class, "src/test/resources/hello/hello.yml", "hello");
+ * </pre>
+ */
+@SuppressWarnings ("WeakerAccess")
+public class SpringBundleContextRule<T extends Configuration> implements TestRule {
+
+    private final Class<T> configurationClass;
+    private final String configurationPath;
+    private final String[] basePackages;
+    private String bundleOptionsKey = "";
+    private Consumer<SpringBundle<T>> bundleOptions = bundle -> { };
+    private volatile SpringBundleContextCache.Lease lease;
+
+    public SpringBundleContextRule(Class<T> configurationClass, String configurationPath, String... basePackages) {
+        this.configurationClass = configurationClass;
+        this.configurationPath = configurationPath;
+        this.basePackages = basePackages;
+    }
+
+    /**
+     * Customizes the {@link SpringBundle} before it is run.  Since options cannot be compared, rules configuring the
+     * bundle differently must use different keys; rules using the same key share the same context.
+     */
+    public SpringBundleContextRule<T> withBundleOptions(String bundleOptionsKey, Consumer<SpringBundle<T>> bundleOptions) {
+        this.bundleOptionsKey = bundleOptionsKey;
+        this.bundleOptions = bundleOptions;
+        return this;
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        return new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                SpringBundleContextCache cache = SpringBundleContextCache.getInstance();
+                lease = cache.acquire(cacheKey(), SpringBundleContextRule.this::bootstrap);
+                try {
+                    base.evaluate();
+                } finally {
+                    cache.release(lease);
+                    lease = null;
+                }
+            }
+        };
+    }
+
+    public BootstrappedContext<T> getBootstrappedContext() {
+        Preconditions.checkState(lease != null, "The context is only available while the rule is applied");
+        return lease.getContext();
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return getBootstrappedContext().getContext();
+    }
+
+    public T getConfiguration() {
+        return getBootstrappedContext().getConfiguration();
+    }
+
+    public Environment getEnvironment() {
+        return getBootstrappedContext().getEnvironment();
+    }
+
+    public <B> B getBean(Class<B> beanClass) {
+        return getContext().getBean(beanClass);
+    }
+
+    private Object cacheKey() throws Exception {
+        return Arrays.asList(configurationClass, new File(configurationPath).getCanonicalPath(),
+                Arrays.asList(basePackages), bundleOptionsKey);
+    }
+
+    private BootstrappedContext<T> bootstrap() throws Exception {
+        long allocatedBefore = allocatedBytes();
+
+        ObjectMapper objectMapper = Jackson.newObjectMapper();
+        Validator validator = Validators.newValidator();
+        T configuration = new YamlConfigurationFactory<>(configurationClass, validator, objectMapper, "dw")
+                .build(new File(configurationPath));
+        Environment environment = new Environment(configurationClass.getSimpleName(), objectMapper, validator,
+                new MetricRegistry(), Thread.currentThread().getContextClassLoader());
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.scan(basePackages);
+        SpringBundle<T> bundle = new SpringBundle<>(context);
+        bundleOptions.accept(bundle);
+        bundle.run(configuration, environment);
+
+        return new BootstrappedContext<>(configuration, environment, bundle, allocatedBytes() - allocatedBefore);
+    }
+
+    /**
+     * The bytes allocated by the current thread so far, or 0 if the JVM does not track them.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        return allocations.isThreadAllocatedMemorySupported()
+                ? Math.max(0, allocations.getThreadAllocatedBytes(Thread.currentThread().getId())) : 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.bazaarvoice.dropwizard.spring.testing;
+
+import com.bazaarvoice.dropwizard.spring.SpringBundle;
+import hello.config.HelloAppConfiguration;
+import hello.resources.HelloResource;
+import io.dropwizard.Configuration;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class SpringBundleContextRuleTest {
+
+    private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
+
+    @ClassRule
+    public static final SpringBundleContextRule<HelloAppConfiguration> CONTEXT =
+            new SpringBundleContextRule<>(HelloAppConfiguration.class, CONFIGURATION_FILE, "hello");
+
+    @Test
+    public void bootstrapsContextThroughSpringBundle() {
+        HelloResource resource = CONTEXT.getBean(HelloResource.class);
+
+        assertThat(resource.getPort(), is(9898));
+        assertThat(resource.getHelloService().getMessage(), is("Welcome to the hello application !!!"));
+        assertThat(CONTEXT.getContext().getBean("dwEnv"), sameInstance(CONTEXT.getEnvironment()));
+    }
+
+    @Test
+    public void sharesContextsWithSameKey() throws Throwable {
+        // Given
+        SpringBundleContextCache cache = SpringBundleContextCache.getInstance();
+        long hits = cache.getHits();
+        SpringBundleContextRule<HelloAppConfiguration> rule =
+                new SpringBundleContextRule<>(HelloAppConfiguration.class, CONFIGURATION_FILE, "hello");
+        AtomicReference<Object> context = new AtomicReference<>();
+
+        // When
+        rule.apply(new Statement() {
+            @Override
+            public void evaluate() {
+                context.set(rule.getContext());
+            }
+        }, Description.EMPTY).evaluate();
+
+        // Then
+        assertThat(context.get(), sameInstance((Object) CONTEXT.getContext()));
+        assertTrue(cache.getHits() > hits);
+    }
+
+    @Test
+    public void closesCachedContexts() throws Exception {
+        // Given
+        SpringBundleContextCache cache = new SpringBundleContextCache(1, Long.MAX_VALUE);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.refresh();
+        cache.release(cache.acquire("closed", () -> new BootstrappedContext<>(new Configuration(), null, new SpringBundle<>(context), 0)));
+
+        // When
+        cache.close();
+
+        // Then
+        assertThat(context.isActive(), is(false));
+        assertThat(cache.size(), is(0));
+    }
+}
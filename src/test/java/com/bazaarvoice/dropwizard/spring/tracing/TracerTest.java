@@ -0,0 +1,72 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TracerTest {
+
+    @Test
+    public void ringBufferKeepsMostRecentSpans() {
+        // When
+        SpanRingBuffer buffer = new SpanRingBuffer(3);
+        for (int i = 0; i < 6; i++) {
+            buffer.record(i, 0, "span" + i, i, 1);
+        }
+
+        // Then : capacity is rounded up to 4
+        List<Span> spans = buffer.snapshot();
+        assertEquals(4, buffer.capacity());
+        assertEquals(4, spans.size());
+        assertEquals("span2", spans.get(0).getName());
+        assertEquals("span5", spans.get(3).getName());
+    }
+
+    @Test
+    public void recordsSpansOfSampledRequests() {
+        // Given
+        MetricRegistry metrics = new MetricRegistry();
+        Tracer tracer = new Tracer(1.0, 16, metrics);
+
+        // When
+        Tracer.Trace trace = tracer.startTrace();
+        assertNotNull(trace);
+        trace.setName("GET /hello");
+        int depth = tracer.enterSpan();
+        tracer.exitSpan(depth, "helloService.greeting", System.nanoTime());
+        tracer.endTrace(trace);
+
+        // Then
+        List<Span> spans = tracer.getBuffer().snapshot();
+        assertEquals(2, spans.size());
+        assertEquals("helloService.greeting", spans.get(0).getName());
+        assertEquals(1, spans.get(0).getDepth());
+        assertEquals("GET /hello", spans.get(1).getName());
+        assertTrue(spans.get(1).isRoot());
+        assertEquals(spans.get(0).getTraceId(), spans.get(1).getTraceId());
+        assertEquals(1, metrics.timer(name(Tracer.class, "sampled-requests")).getCount());
+        assertFalse(tracer.isSampled());
+    }
+
+    @Test
+    public void ignoresUnsampledRequests() {
+        // Given
+        Tracer tracer = new Tracer(0.0, 16, new MetricRegistry());
+
+        // When
+        assertNull(tracer.startTrace());
+        assertEquals(0, tracer.enterSpan());
+        assertFalse(tracer.isSampled());
+
+        // Then
+        assertTrue(tracer.getBuffer().snapshot().isEmpty());
+    }
+}
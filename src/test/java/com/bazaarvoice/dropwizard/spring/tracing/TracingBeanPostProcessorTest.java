@@ -0,0 +1,183 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TracingBeanPostProcessorTest {
+
+    private Tracer tracer;
+
+    private AnnotationConfigApplicationContext context;
+
+    @Before
+    public void setup() {
+        tracer = new Tracer(1.0, 16, new MetricRegistry());
+        context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().addBeanPostProcessor(new TracingBeanPostProcessor(tracer, TracingBeanPostProcessorTest.class.getPackage().getName()));
+        context.register(TracedConfiguration.class);
+        context.refresh();
+    }
+
+    @After
+    public void teardown() {
+        context.close();
+    }
+
+    @Test
+    public void proxiesBeansByClass() {
+        // When
+        GreetingService service = context.getBean(GreetingService.class);
+
+        // Then
+        assertTrue(AopUtils.isCglibProxy(service));
+        assertFalse(service instanceof Advised);
+        assertSame(service, context.getBean(Greeter.class));
+        assertEquals(1, context.getBeansOfType(GreetingService.class).size());
+        assertSame(service, context.getBean(GreetingClient.class).getService());
+        assertFalse(AopUtils.isAopProxy(context.getBean(GreetingResource.class)));
+        assertFalse(AopUtils.isAopProxy(context.getBean(FinalService.class)));
+    }
+
+    @Test
+    public void recordsCallsOfSampledRequests() {
+        // Given
+        GreetingService service = context.getBean(GreetingService.class);
+        Tracer.Trace trace = tracer.startTrace();
+        assertNotNull(trace);
+        trace.setName("GET /greeting");
+
+        // When
+        assertEquals("hello", service.greet());
+        tracer.endTrace(trace);
+
+        // Then
+        List<Span> spans = tracer.getBuffer().snapshot();
+        assertEquals(2, spans.size());
+        assertEquals("greetingService.greet", spans.get(0).getName());
+        assertEquals("GET /greeting", spans.get(1).getName());
+    }
+
+    @Test
+    public void skipsCallsOfRequestsThatAreNotSampled() {
+        // Given
+        GreetingService service = context.getBean(GreetingService.class);
+
+        // When
+        assertEquals("hello", service.greet());
+
+        // Then
+        assertTrue(tracer.getBuffer().snapshot().isEmpty());
+    }
+
+    @Test
+    public void addsTracingToBeansThatAreAlreadyProxied() {
+        // Given
+        Welcomer welcomer = context.getBean(Welcomer.class);
+        assertTrue(AopUtils.isJdkDynamicProxy(welcomer));
+        Tracer.Trace trace = tracer.startTrace();
+        assertNotNull(trace);
+        trace.setName("GET /greeting");
+
+        // When
+        assertEquals("welcome", welcomer.welcome());
+        tracer.endTrace(trace);
+
+        // Then
+        List<Span> spans = tracer.getBuffer().snapshot();
+        assertEquals(2, spans.size());
+        assertEquals("welcomer.welcome", spans.get(0).getName());
+    }
+
+    public static class TracedConfiguration {
+
+        @Bean
+        public GreetingService greetingService() {
+            return new GreetingService();
+        }
+
+        @Bean
+        public GreetingClient greetingClient(GreetingService greetingService) {
+            return new GreetingClient(greetingService);
+        }
+
+        @Bean
+        public Welcomer welcomer() {
+            return (Welcomer) new ProxyFactory(new WelcomeService()).getProxy();
+        }
+
+        @Bean
+        public GreetingResource greetingResource() {
+            return new GreetingResource();
+        }
+
+        @Bean
+        public FinalService finalService() {
+            return new FinalService();
+        }
+    }
+
+    public interface Greeter {
+        String greet();
+    }
+
+    public static class GreetingService implements Greeter {
+
+        @Override
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    public interface Welcomer {
+        String welcome();
+    }
+
+    public static class WelcomeService implements Welcomer {
+
+        @Override
+        public String welcome() {
+            return "welcome";
+        }
+    }
+
+    public static class GreetingClient {
+        private final GreetingService service;
+
+        public GreetingClient(GreetingService service) {
+            this.service = service;
+        }
+
+        public GreetingService getService() {
+            return service;
+        }
+    }
+
+    @Path ("/greeting")
+    public static class GreetingResource {
+
+        @GET
+        public String greet() {
+            return "hello";
+        }
+    }
+
+    public static final class FinalService {
+    }
+}
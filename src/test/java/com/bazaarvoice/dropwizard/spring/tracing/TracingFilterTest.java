@@ -0,0 +1,100 @@
+package com.bazaarvoice.dropwizard.spring.tracing;
+
+import com.codahale.metrics.MetricRegistry;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TracingFilterTest {
+
+    private static Tracer tracer;
+
+    private static volatile AsyncResponse suspended;
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setup() {
+        tracer = new Tracer(1.0, 16, new MetricRegistry());
+        suspended = null;
+        application = new ApplicationHandler(new ResourceConfig()
+                .register(new TracedResource())
+                .register(new TracingFilter(tracer)));
+    }
+
+    @Test
+    public void recordsTraceOnceResponseIsProduced() throws Exception {
+        // When
+        ContainerResponse response = get("/traced/sync").get();
+
+        // Then
+        assertEquals(200, response.getStatus());
+        List<Span> spans = tracer.getBuffer().snapshot();
+        assertEquals(1, spans.size());
+        assertEquals("GET /traced/sync", spans.get(0).getName());
+        assertTrue(spans.get(0).isRoot());
+        assertFalse(tracer.isSampled());
+    }
+
+    @Test
+    public void recordsTraceOfSuspendedRequestOnResumingThread() throws Exception {
+        // Given
+        Future<ContainerResponse> pending = get("/traced/async");
+        assertNotNull(suspended);
+        assertFalse(tracer.isSampled());
+        assertTrue(tracer.getBuffer().snapshot().isEmpty());
+
+        // When
+        Thread resumer = new Thread(() -> suspended.resume("resumed"));
+        resumer.start();
+        resumer.join();
+
+        // Then
+        assertEquals(200, pending.get().getStatus());
+        List<Span> spans = tracer.getBuffer().snapshot();
+        assertEquals(1, spans.size());
+        assertEquals("GET /traced/async", spans.get(0).getName());
+    }
+
+    private Future<ContainerResponse> get(String path) {
+        ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"), URI.create("http://localhost" + path),
+                "GET", null, new MapPropertiesDelegate());
+        return application.apply(request, new ByteArrayOutputStream());
+    }
+
+    @Path ("/traced")
+    public static class TracedResource {
+
+        @GET
+        @Path ("sync")
+        public String sync() {
+            assertTrue(tracer.isSampled());
+            return "traced";
+        }
+
+        @GET
+        @Path ("async")
+        public void async(@Suspended AsyncResponse response) {
+            assertTrue(tracer.isSampled());
+            suspended = response;
+        }
+    }
+}
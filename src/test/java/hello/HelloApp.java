@@ -15,12 +15,12 @@ public class HelloApp extends Application<HelloAppConfiguration> {
     private static final String CONFIGURATION_FILE = "src/test/resources/hello/hello.yml";
 
     public static void main(String[] args) throws Exception {
-        new HelloApp().run("server", CONFIGURATION_FILE);
+        new HelloApp().run(args.length > 0 ? args : new String[] {"server", CONFIGURATION_FILE});
     }
 
     @Override
     public void initialize(Bootstrap<HelloAppConfiguration> bootstrap) {
-        bootstrap.addBundle(new SpringBundle<>(applicationContext()));
+        bootstrap.addBundle(new SpringBundle<>(applicationContext()).enableClassDataSharingTraining(true));
     }
 
     @Override
@@ -9,8 +9,8 @@ import org.glassfish.hk2.utilities.binding.AbstractBinder;
 public class HelloBinder extends AbstractBinder {
   @Override
   protected void configure() {
-    // @Context
-    bind(HelloInjectionResolver.class).to(new TypeLiteral<InjectionResolver<Object>>() {
+    // @Hello
+    bind(HelloInjectionResolver.class).to(new TypeLiteral<InjectionResolver<Hello>>() {
     }).in(Singleton.class);
   }
 }
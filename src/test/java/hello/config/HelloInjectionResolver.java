@@ -4,9 +4,9 @@ import org.glassfish.hk2.api.Injectee;
 import org.glassfish.hk2.api.InjectionResolver;
 import org.glassfish.hk2.api.ServiceHandle;
 
-public class HelloInjectionResolver implements InjectionResolver<Object> {
+public class HelloInjectionResolver implements InjectionResolver<Hello> {
 
-  private InjectionResolver<Object> resolver;
+  private InjectionResolver<Hello> resolver;
 
   @Override
   public boolean isConstructorParameterIndicator() {